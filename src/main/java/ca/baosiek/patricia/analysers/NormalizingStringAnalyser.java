@@ -0,0 +1,112 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.analysers;
+
+import java.text.Normalizer;
+
+/**
+ * A StringAnalyser that sees keys case folded and, optionally, with accents
+ * stripped. Characters are normalized one at a time while bits are read,
+ * so a trie using this analyser matches "Foo", "FOO" and "foo" as the same key
+ * without lower casing copies of keys on put or get. Keys are stored as given
+ * the first time they were put.
+ *
+ * As characters are seen one at a time, a key is never seen with a different
+ * length. So a decomposed "e\u0301" (e and a combining acute accent) is not the
+ * same key as a precomposed "é", even with accents stripped. Callers whose keys
+ * may come decomposed should normalize them to NFC first, with
+ * Normalizer.normalize(key, Normalizer.Form.NFC).
+ */
+
+public class NormalizingStringAnalyser extends StringAnalyser {
+
+    private final boolean stripAccents;
+
+    public NormalizingStringAnalyser() {
+
+        this(false);
+    }
+
+    /**
+     * @param stripAccents when true, characters decomposing into a base character
+     *                     followed by combining marks are seen as their base character.
+     *                     Ex: 'é' is seen as 'e'
+     */
+    public NormalizingStringAnalyser(boolean stripAccents) {
+
+        this.stripAccents = stripAccents;
+    }
+
+    @Override
+    protected char charAt(CharSequence s, int index) {
+
+        char c = s.charAt(index);
+
+        // ASCII fast path
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+
+        if (stripAccents) c = BaseCharacters.TABLE[c];
+
+        // Same folding as String.equalsIgnoreCase
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    @Override
+    public boolean equalKeys(CharSequence key1, CharSequence key2) {
+
+        if (key1.length() != key2.length()) return false;
+
+        for (int i = 0; i < key1.length(); i++) {
+            if (charAt(key1, i) != charAt(key2, i)) return false;
+        }
+
+        return true;
+    }
+
+    /*
+    Base character of every char, built once on first use of accent stripping.
+     */
+    private static class BaseCharacters {
+
+        private static final char[] TABLE = build();
+
+        private static char[] build() {
+
+            char[] table = new char[Character.MAX_VALUE + 1];
+
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+
+                table[c] = (char) c;
+                if (c < 0x80 || Character.isSurrogate((char) c)) continue;
+
+                String decomposed = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD);
+                if (decomposed.length() < 2) continue;
+
+                boolean marksOnly = true;
+                for (int i = 1; i < decomposed.length(); i++) {
+                    marksOnly &= Character.getType(decomposed.charAt(i)) == Character.NON_SPACING_MARK;
+                }
+
+                if (marksOnly) table[c] = decomposed.charAt(0);
+            }
+
+            return table;
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class StringAnalyser {
      * @param key to compute length in bits
      * @return the length in bits
      */
-    public int lengthInBits(String key) {
+    public int lengthInBits(CharSequence key) {
 
         return key.length() * LENGTH;
     }
@@ -82,13 +82,57 @@ public class StringAnalyser {
     end of string (EOS) character, characterized with 0x0000, when outside of
     string range. This helper method is relevant when strings have different sizes.
     */
-    private int charAtIndex(String s, int d) {
+    private int charAtIndex(CharSequence s, int d) {
 
-        if (d < s.length()) return s.charAt(d);
+        if (d < s.length()) return charAt(s, d);
         else return EOS;
     }
 
-    public boolean isBitSet(String key, int bitIndex, int lengthInBits){
+    /**
+     * Every character of a key is read through this method. Subclasses
+     * may override it to normalize characters on the fly, e.g. case folding,
+     * with no need to build a normalized copy of the key.
+     * @param s the key
+     * @param index position of the character within the key's range
+     * @return the character as seen by this analyser
+     */
+    protected char charAt(CharSequence s, int index) {
+
+        return s.charAt(index);
+    }
+
+    /**
+     * @param key1 first key to be compared
+     * @param key2 second key to be compared
+     * @return true when both keys are the same key for this analyser
+     */
+    public boolean equalKeys(CharSequence key1, CharSequence key2) {
+
+        if (key1 instanceof String && key2 instanceof String) return key1.equals(key2);
+        return CharSequence.compare(key1, key2) == 0;
+    }
+
+    /**
+     * @param key to hash
+     * @return a 64 bit hash of key, the same for keys equalKeys sees as the same key.
+     * Meant for membership filters placed in front of a trie
+     */
+    public long hashKey(CharSequence key) {
+
+        long h = key.length();
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ charAt(key, i)) * 0x9e3779b97f4a7c15L;
+        }
+
+        // Final mix, so every bit of the hash depends on every character
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    public boolean isBitSet(CharSequence key, int bitIndex, int lengthInBits){
 
         if (key == null || bitIndex >= lengthInBits){
             return false;
@@ -108,7 +152,7 @@ public class StringAnalyser {
         Return true or false. This will indicate if from the node at hand
         we go either to the left child (if false) or to the right child (if true);
          */
-        return (key.charAt(index) & mask(mod)) != 0;
+        return (charAt(key, index) & mask(mod)) != 0;
 
     }
 
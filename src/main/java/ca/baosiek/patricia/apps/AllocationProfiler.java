@@ -0,0 +1,114 @@
+package ca.baosiek.patricia.apps;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures, phase by phase, what the apps allocate and what the garbage collector does
+ * about it: bytes allocated by the running thread (per item processed), collections
+ * and their accumulated time, and peak heap used. Phases are expected to run one after
+ * the other on the same thread. When disabled it does nothing.
+ * Bytes allocated are reported as unavailable on JVMs not measuring them per thread.
+ */
+public class AllocationProfiler {
+
+    private final boolean enabled;
+    private final List<String> rows = new ArrayList<>();
+
+    private final com.sun.management.ThreadMXBean threads; //null when allocations aren't measured
+    private final List<GarbageCollectorMXBean> collectors;
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+
+    // Current phase, as of begin
+    private String phase;
+    private long allocatedBytes;
+    private long collections;
+    private long collectionMillis;
+    private long start;
+
+    public AllocationProfiler(boolean enabled) {
+
+        this.enabled = enabled;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) heapPools.add(pool);
+        }
+
+        if (enabled && threads != null) threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    public void begin(String phase) {
+
+        if (!enabled) return;
+
+        this.phase = phase;
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        collections = collectionCount();
+        collectionMillis = collectionTime();
+        start = System.nanoTime();
+        allocatedBytes = allocatedBytes();
+    }
+
+    /**
+     * @param items number of items (lines, tokens, keys) the phase went through
+     */
+    public void end(long items) {
+
+        if (!enabled) return;
+
+        long allocated = allocatedBytes() - allocatedBytes;
+        long elapsed = System.nanoTime() - start;
+
+        // Each pool peaked on its own, so their sum may overstate the real peak
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) peak += pool.getPeakUsage().getUsed();
+
+        String perItem = items == 0 ? "0.0" : String.format("%,.1f", (double) allocated / items);
+        rows.add(String.format("%-10s %,12d %16s %10s %,6d %,9d %,10.2f %,8d",
+                phase, items, threads == null ? "unavailable" : String.format("%,d", allocated),
+                threads == null ? "unavailable" : perItem,
+                collectionCount() - collections, collectionTime() - collectionMillis,
+                peak / 1000000d, elapsed / 1000000L));
+    }
+
+    public void report() {
+
+        if (!enabled) return;
+
+        System.out.printf("\n%-10s %12s %16s %10s %6s %9s %10s %8s\n",
+                "PHASE", "ITEMS", "ALLOCATED", "BYTES/ITEM", "GCS", "GC MS", "PEAK MB", "MS");
+        rows.forEach(System.out::println);
+        System.out.println();
+    }
+
+    private long allocatedBytes() {
+
+        return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long collectionCount() {
+
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) count += Math.max(0, collector.getCollectionCount());
+
+        return count;
+    }
+
+    private long collectionTime() {
+
+        long time = 0;
+        for (GarbageCollectorMXBean collector : collectors) time += Math.max(0, collector.getCollectionTime());
+
+        return time;
+    }
+}
@@ -22,12 +22,18 @@ public class DNSTable {
         // Initialize command parameters
         String fileName = null;
         String dataStructure = null;
+        boolean caseInsensitive = false;
+        boolean profiling = false;
+        boolean finger = false;
 
         // Setting the options
         Options options = new Options();
         options.addOption("v", false, "verbosity");
         options.addOption("n", true, "filename");
         options.addOption("d", true, "data structure");
+        options.addOption("i", false, "case insensitive symbol table, instead of lower casing urls");
+        options.addOption("p", false, "profile allocation, garbage collection and peak heap by phase");
+        options.addOption("f", false, "finger search, resuming from the previous url's path. For sorted urls");
 
         // Parsing command line
         CommandLineParser parser = new DefaultParser();
@@ -49,6 +55,15 @@ public class DNSTable {
                 throw new InvalidParameterException("Data strucure wasn't specified");
             }
 
+            // Checking for case insensitive symbol table
+            caseInsensitive = cmd.hasOption('i');
+
+            // Checking for profiling
+            profiling = cmd.hasOption('p');
+
+            // Checking for finger search
+            finger = cmd.hasOption('f');
+
         } catch (ParseException e) {
             e.printStackTrace();
         }
@@ -57,61 +72,92 @@ public class DNSTable {
         System.out.printf("Processing %s\n", fileName);
 
         // Create symbol table
-        SymbolTable<String> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        SymbolTable<String> st = finger
+                ? SymbolTableFactory.createFingerSymbolTable(dataStructure, caseInsensitive)
+                : caseInsensitive
+                ? SymbolTableFactory.createCaseInsensitiveSymbolTable(dataStructure)
+                : SymbolTableFactory.createSymbolTable(dataStructure);
 
         // Symbol table cannot be null
         if (st == null) {
             throw new NullPointerException("Invalid symbol table type");
         }
 
-        // list with all urls to store in the table
-        List<String> urls = new LinkedList<>();
+        // The table may hold memory outside the heap, freed once done with it
+        try (st) {
 
-        // Initialize buffered reader to read file.
-        BufferedReader br = null;
+            AllocationProfiler profiler = new AllocationProfiler(profiling);
 
-        try {
-            br = new BufferedReader(new FileReader(new File(fileName)));
+            // list with all urls to store in the table
+            List<String> urls = new LinkedList<>();
 
-            // For each line...
-            String line;
-            int counter = 0;
-            while ((line = br.readLine()) != null) {
+            // Lines are only kept when profiling, so reading and tokenizing are measured apart
+            List<String> lines = profiling ? new ArrayList<>() : null;
 
-                // DMOZ first column is the url
-                String sUrl = line.toLowerCase().split(",")[0];
-                urls.add(sUrl);
-            }
+            // Initialize buffered reader to read file.
+            profiler.begin("read");
+            BufferedReader br = null;
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
             try {
-                if (br != null) {
-                    br.close();
+                br = new BufferedReader(new FileReader(new File(fileName)));
+
+                // For each line...
+                String line;
+                int counter = 0;
+                while ((line = br.readLine()) != null) {
+
+                    if (lines != null) lines.add(line);
+                    else urls.add(urlOf(line, caseInsensitive));
                 }
+
             } catch (IOException e) {
                 e.printStackTrace();
+            } finally {
+                try {
+                    if (br != null) {
+                        br.close();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            if (lines != null) {
+                profiler.end(lines.size());
+
+                profiler.begin("tokenize");
+                for (String line : lines) urls.add(urlOf(line, caseInsensitive));
+                profiler.end(urls.size());
+                lines = null;
             }
-        }
 
-        System.out.println("Symbol table putting began...");
+            System.out.println("Symbol table putting began...");
 
-        // for the purpose of computing symbol table performance, stopwatch starts here.
-        long start = System.currentTimeMillis(); // start stopwatch
+            // for the purpose of computing symbol table performance, stopwatch starts here.
+            long start = System.currentTimeMillis(); // start stopwatch
 
-        // Insert urls into table
-        urls.forEach(url -> st.put(url, "999.999.999.999"));
+            // Insert urls into table
+            profiler.begin("insert");
+            urls.forEach(url -> st.put(url, "999.999.999.999"));
+            profiler.end(urls.size());
 
-        // Store end time stamp
-        long end = System.currentTimeMillis();
+            // Store end time stamp
+            long end = System.currentTimeMillis();
+
+            // Print results to be compared
+            System.out.printf("Total processing time1: %,dms\n", (end - start));
+            System.out.printf("\nNumber of urls: %,d\n", st.size());
+            profiler.report();
+
+            // Finding underlying data structure size
+            MemoryMeter mm = new MemoryMeter();
+            System.out.printf("Symbol table size: %.2f MB\n", (double) mm.measureDeep(st) / 1000000d);
+        }
+    }
 
-        // Print results to be compared
-        System.out.printf("Total processing time1: %,dms\n", (end - start));
-        System.out.printf("\nNumber of urls: %,d\n", st.size());
+    // DMOZ first column is the url. A case insensitive table needs no lower cased copy.
+    private static String urlOf(String line, boolean caseInsensitive) {
 
-        // Finding underlying data structure size
-        MemoryMeter mm = new MemoryMeter();
-        System.out.printf("Symbol table size: %.2f MB\n", (double) mm.measureDeep(st) / 1000000d);
+        return (caseInsensitive ? line : line.toLowerCase()).split(",")[0];
     }
 }
@@ -1,5 +1,7 @@
 package ca.baosiek.patricia.apps;
 
+import ca.baosiek.patricia.caches.EvictionPolicy;
+import ca.baosiek.patricia.symbolTableUtils.CachingSymbolTable;
 import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
 import ca.baosiek.patricia.symbolTableUtils.SymbolTableFactory;
 import org.apache.commons.cli.*;
@@ -18,18 +20,33 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class WordCount {
 
+    // Token marking the end of a line, where n-gram windows start over. Tokens never hold a line break
+    private static final String LINE_END = "\n";
+
     public static void main(String[] args) {
 
         // Initialie command parameters
         String fileName = null;
         String dataStructure = null;
         AtomicBoolean verbosity = new AtomicBoolean(false);
+        boolean caseInsensitive = false;
+        boolean profiling = false;
+        int gramSize = 1;
+        int minCount = 0;
+        int cacheCapacity = 0;
+        EvictionPolicy evictionPolicy = EvictionPolicy.TINY_LFU;
 
         // Setting the options
         Options options = new Options();
         options.addOption("v", false, "verbosity");
         options.addOption("n", true, "filename");
         options.addOption("d", true, "data structure");
+        options.addOption("i", false, "case insensitive symbol table, instead of lower casing lines");
+        options.addOption("p", false, "profile allocation, garbage collection and peak heap by phase");
+        options.addOption("g", true, "n-gram size, tokens per key (default 1)");
+        options.addOption("m", true, "prune n-grams seen fewer than this many times");
+        options.addOption("c", true, "capacity of a hot key cache in front of the symbol table");
+        options.addOption("e", true, "eviction policy of the hot key cache: clock or tiny_lfu (default)");
 
         // Parsing command line
         CommandLineParser parser = new DefaultParser();
@@ -54,6 +71,33 @@ public class WordCount {
             // Checking for data structure
             verbosity.set(cmd.hasOption('v'));
 
+            // Checking for case insensitive symbol table
+            caseInsensitive = cmd.hasOption('i');
+
+            // Checking for profiling
+            profiling = cmd.hasOption('p');
+
+            // Checking for n-gram size
+            if (cmd.hasOption('g')){
+                gramSize = Integer.parseInt(cmd.getOptionValue('g'));
+                if (gramSize < 1) throw new InvalidParameterException("N-gram size must be at least 1");
+            }
+
+            // Checking for pruning
+            if (cmd.hasOption('m')){
+                minCount = Integer.parseInt(cmd.getOptionValue('m'));
+            }
+
+            // Checking for hot key cache
+            if (cmd.hasOption('c')){
+                cacheCapacity = Integer.parseInt(cmd.getOptionValue('c'));
+                if (cacheCapacity > 0 && caseInsensitive) {
+                    throw new InvalidParameterException("Hot key cache needs a case sensitive symbol table. Drop -i or -c");
+                }
+            }
+            if (cmd.hasOption('e')){
+                evictionPolicy = EvictionPolicy.valueOf(cmd.getOptionValue('e').toUpperCase());
+            }
 
         } catch (ParseException e) {
             e.printStackTrace();
@@ -63,76 +107,115 @@ public class WordCount {
         System.out.printf("Processing %s\n", fileName);
 
         // Create symbol table
-        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        SymbolTable<Integer> table = caseInsensitive
+                ? SymbolTableFactory.createCaseInsensitiveSymbolTable(dataStructure)
+                : SymbolTableFactory.createSymbolTable(dataStructure);
+        SymbolTable<Integer> st = cacheCapacity > 0
+                ? SymbolTableFactory.createCachingSymbolTable(table, cacheCapacity, evictionPolicy)
+                : table;
 
         // Symbol table cannot be null
         if (st == null){
             throw new NullPointerException("Invalid symbol table type");
         }
 
-        // list with all tokens extracted from file
-        List<String> tokenList = new ArrayList<>();
+        // The table may hold memory outside the heap, freed once done with it
+        try (st) {
 
-        // Initialize buffered reader to read file.
-        BufferedReader br = null;
-        try {
-            br = new BufferedReader(new FileReader(new File(fileName)));
-            String line;
-            while ((line = br.readLine()) != null) {
+            AllocationProfiler profiler = new AllocationProfiler(profiling);
 
-                // Filter line before tokenization
-                String newLine = filterLine(line);
+            // list with all tokens extracted from file
+            List<String> tokenList = new ArrayList<>();
 
-                // Splits line into tokens
-                String[] tokens = newLine.split(" ");
+            // Lines are only kept when profiling, so reading and tokenizing are measured apart
+            List<String> lines = profiling ? new ArrayList<>() : null;
 
-                // Add tokens to tokenList
-                tokenList.addAll(Arrays.asList(tokens));
-            }
-        } catch (IOException e) {
+            // Initialize buffered reader to read file.
+            profiler.begin("read");
+            BufferedReader br = null;
+            try {
+                br = new BufferedReader(new FileReader(new File(fileName)));
+                String line;
+                while ((line = br.readLine()) != null) {
 
-            e.printStackTrace();
-        } finally {
-            if (br != null){
-                try {
-                    br.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
+                    if (lines != null) lines.add(line);
+                    else tokenize(line, !caseInsensitive, gramSize > 1, tokenList);
+                }
+            } catch (IOException e) {
+
+                e.printStackTrace();
+            } finally {
+                if (br != null){
+                    try {
+                        br.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
-        }
 
-        // for the purpose of computing symbol table performance, stopwatch starts here.
-        final long start = System.currentTimeMillis(); // start stopwatch
+            if (lines != null) {
+                profiler.end(lines.size());
 
-        // Information to user
-        System.out.println("Symbol table putting began...");
+                profiler.begin("tokenize");
+                for (String line : lines) tokenize(line, !caseInsensitive, gramSize > 1, tokenList);
+                profiler.end(tokenList.size());
+                lines = null;
+            }
 
-        // Token counter
-        AtomicInteger nTokens = new AtomicInteger();
+            // for the purpose of computing symbol table performance, stopwatch starts here.
+            final long start = System.currentTimeMillis(); // start stopwatch
 
-        // As this process may take some time the following output serves
-        // to inform the user that this app is running normally.
-        if (verbosity.get()) {
-            System.out.println(" ".repeat(60) + "    TOKENS\tDISTINCT\tELAPSED\n");
-        }
+            // Information to user
+            System.out.println("Symbol table putting began...");
 
-        // Insert tokens into symbol table
-        tokenList.forEach(tk -> insertToken(st, tk, nTokens, start, verbosity.get()));
+            // Token counter
+            AtomicInteger nTokens = new AtomicInteger();
 
-        // Print last row
-        if (verbosity.get()) {
-            System.out.println("\n");
-        }
+            // As this process may take some time the following output serves
+            // to inform the user that this app is running normally.
+            if (verbosity.get()) {
+                System.out.println(" ".repeat(60) + "    TOKENS\tDISTINCT\tELAPSED\n");
+            }
 
-        // Print results to be compared
-        System.out.printf("Symbol table size is: [%,d]\n", st.size());
-        System.out.printf("Total processing time: %,d ms\n", (System.currentTimeMillis() - start));
+            // Insert tokens, or n-grams, into symbol table
+            profiler.begin("insert");
+            if (gramSize == 1) {
+                tokenList.forEach(tk -> insertToken(st, tk, nTokens, start, verbosity.get()));
+            } else {
+                insertNGrams(st, tokenList, gramSize, nTokens, start, verbosity.get());
+            }
+            profiler.end(nTokens.get());
+
+            // Print last row
+            if (verbosity.get()) {
+                System.out.println("\n");
+            }
+
+            // Print results to be compared
+            System.out.printf("Symbol table size is: [%,d]\n", st.size());
 
-        // Finding underlying data structure size
-        MemoryMeter mm = new MemoryMeter();
-        System.out.printf("Symbol table size: %.2f MB\n", (double) mm.measureDeep(st) / 1000000d);
+            // Pruning rare n-grams
+            if (minCount > 1) {
+                final int min = minCount;
+                profiler.begin("prune");
+                long pruned = st.removeIf(count -> count < min);
+                profiler.end(pruned);
+                System.out.printf("Pruned %,d keys seen fewer than %d times, size is: [%,d]\n", pruned, min, st.size());
+            }
 
+            System.out.printf("Total processing time: %,d ms\n", (System.currentTimeMillis() - start));
+            profiler.report();
+            if (st instanceof CachingSymbolTable) System.out.println(st);
+
+            // Finding underlying data structure size
+            MemoryMeter mm = new MemoryMeter();
+            long bytes = mm.measureDeep(st);
+            System.out.printf("Symbol table size: %.2f MB\n", (double) bytes / 1000000d);
+            if (st.size() > 0) {
+                System.out.printf("Bytes per distinct %d-gram: %.1f\n", gramSize, (double) bytes / st.size());
+            }
+        }
     }
 
     // Helper method just to enhance code understanding
@@ -156,10 +239,66 @@ public class WordCount {
         }
     }
 
+    // Slides a window of n tokens over every line of tokenList. Every n-gram is joined by ' ' in
+    // the same buffer, which tables able to look up a CharSequence only copy for new n-grams.
+    static void insertNGrams(SymbolTable<Integer> st, List<String> tokenList, int n,
+                              AtomicInteger nTokens, long start, final boolean verbose) {
+
+        // Empty tokens come from lines starting with a whitespace
+        String[] window = new String[n];
+        int filled = 0;
+        StringBuilder key = new StringBuilder();
+
+        for (String tk : tokenList) {
+
+            if (tk.equals(LINE_END)) {
+                filled = 0;
+                continue;
+            }
+
+            if (tk.isEmpty()) continue;
+
+            System.arraycopy(window, 1, window, 0, n - 1);
+            window[n - 1] = tk;
+            if (++filled < n) continue;
+
+            key.setLength(0);
+            key.append(window[0]);
+            for (int i = 1; i < n; i++) key.append(' ').append(window[i]);
+
+            st.merge(key, 1, Integer::sum);
+
+            nTokens.getAndIncrement();
+
+            if (nTokens.get() % 10000 == 0 && verbose) {
+                System.out.print("*");
+            }
+
+            if (nTokens.get() % 600000 == 0 && verbose) {
+                long lap = System.currentTimeMillis();
+                System.out.printf(" %9d\t%8d\t%,6dms\n", nTokens.get(), st.size(), (lap - start));
+            }
+        }
+    }
+
+    // Helper method just to enhance code understanding. N-grams need LINE_END after every line
+    static void tokenize(String line, boolean lowerCase, boolean markLineEnd, List<String> tokenList) {
+
+        // Filter line before tokenization
+        String newLine = filterLine(line, lowerCase);
+
+        // Splits line into tokens
+        String[] tokens = newLine.split(" ");
+
+        // Add tokens to tokenList
+        tokenList.addAll(Arrays.asList(tokens));
+        if (markLineEnd) tokenList.add(LINE_END);
+    }
+
     // Helper method just to enhance code understanding
-    private static String filterLine(String line) {
+    private static String filterLine(String line, boolean lowerCase) {
 
-        String newLine = line.toLowerCase()
+        String newLine = (lowerCase ? line.toLowerCase() : line)
                 // Replaces all punctuations with one whitespace.
                 .replaceAll("\\p{Punct}", " ")
                 // Replaces all number sequences with one whitespace
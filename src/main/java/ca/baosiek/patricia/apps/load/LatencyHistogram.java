@@ -0,0 +1,93 @@
+package ca.baosiek.patricia.apps.load;
+
+/**
+ * A latency histogram in the spirit of HdrHistogram: buckets are linear within
+ * each power of two, so every recorded value keeps about 3 significant bits
+ * plus SUB_BUCKET_BITS - 1 bits of precision (under 1% error) whatever its magnitude.
+ * Recording is a couple of shifts and an array increment. Not thread safe,
+ * every thread records into its own histogram and they are merged at the end.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int MAX_MAGNITUDE = Long.SIZE - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(MAX_MAGNITUDE + 2) * HALF_SUB_BUCKETS];
+    private long totalCount;
+    private long sum; //sum of recorded values, for the mean
+    private long max;
+
+    /**
+     * @param value latency in nanoseconds. Negative values are recorded as 0
+     */
+    public void record(long value) {
+
+        if (value < 0) value = 0;
+
+        counts[index(value)]++;
+        totalCount++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    public void add(LatencyHistogram other) {
+
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+
+        return totalCount;
+    }
+
+    public long getMax() {
+
+        return max;
+    }
+
+    public double getMean() {
+
+        return totalCount == 0 ? 0d : (double) sum / totalCount;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return highest value equivalent to the one at percentile, i.e. the top of its bucket
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (totalCount == 0) return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100d * totalCount));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestEquivalentValue(i), max);
+        }
+
+        return max;
+    }
+
+    /*
+    Values below 2 * HALF_SUB_BUCKETS get one bucket each. Past that, every power of
+    two (magnitude) is split in HALF_SUB_BUCKETS buckets, by the value's top bits.
+     */
+    private static int index(long value) {
+
+        int magnitude = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return magnitude * HALF_SUB_BUCKETS + (int) (value >>> magnitude);
+    }
+
+    private static long highestEquivalentValue(int index) {
+
+        int magnitude = Math.max(0, index / HALF_SUB_BUCKETS - 1);
+        long subBucket = index - (long) magnitude * HALF_SUB_BUCKETS;
+
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+}
@@ -0,0 +1,358 @@
+package ca.baosiek.patricia.apps.load;
+
+import ca.baosiek.patricia.caches.EvictionPolicy;
+import ca.baosiek.patricia.symbolTableUtils.CachingSymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.FilteredSymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.PatriciaSymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.SymbolTableFactory;
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Runs a mix of reads, writes and misses against a symbol table from several threads
+ * and reports per operation latency percentiles and throughput, also as a JSON line
+ * meant to be kept and compared between runs.
+ *
+ * Urls are read from a DMOZ file and shuffled. The last MISS_SHARE of them are never
+ * put in the table and are the keys misses look up. Reads and writes pick among the
+ * others, uniformly or following a Zipfian distribution. Writes update existing keys,
+ * so the table keeps the same size along the run.
+ *
+ * A membership filter may be put in front of the PATRICIA Trie, so misses skip the
+ * trie. It is built once urls are loaded, and its false positive rate over the
+ * measured run is reported along with its size.
+ *
+ * Symbol tables are not thread safe. They are shared behind a read write lock, reads
+ * and misses taking the read lock and writes the write lock, and time waiting for
+ * the lock is part of measured latency. A hot key cache changes on every lookup, so
+ * with one every operation takes the write lock.
+ *
+ * Without a target rate every thread issues its next operation as soon as the last
+ * one returns (closed loop). With a rate, operations are scheduled at fixed intervals
+ * and latency is measured from the scheduled time (open loop), so a stall delays, and
+ * is charged to, every operation scheduled during it.
+ */
+public class LoadDriver {
+
+    private static final double MISS_SHARE = 0.1d; //share of urls kept out of the table
+    private static final String VALUE = "999.999.999.999";
+
+    private enum Operation {READ, WRITE, MISS}
+
+    public static void main(String[] args) throws Exception {
+
+        // Initialize command parameters
+        String fileName = null;
+        String dataStructure = null;
+        int threads = 4;
+        int readPercent = 90;
+        int writePercent = 5;
+        int missPercent = 5;
+        double theta = 0d;
+        double seconds = 10d;
+        double warmupSeconds = 2d;
+        long rate = 0;
+        String jsonFileName = null;
+        FilteredSymbolTable.Filter filter = null;
+        int cacheCapacity = 0;
+        EvictionPolicy evictionPolicy = EvictionPolicy.TINY_LFU;
+
+        // Setting the options
+        Options options = new Options();
+        options.addOption("n", true, "filename");
+        options.addOption("d", true, "data structure");
+        options.addOption("t", true, "number of threads");
+        options.addOption("r", true, "percentage of reads");
+        options.addOption("w", true, "percentage of writes");
+        options.addOption("m", true, "percentage of misses");
+        options.addOption("z", true, "Zipfian skew (theta) of key popularity, instead of uniform. Ex: 0.99");
+        options.addOption("s", true, "seconds measured");
+        options.addOption("u", true, "warm up seconds, not measured");
+        options.addOption("q", true, "target operations per second over all threads (open loop)");
+        options.addOption("j", true, "file to append the JSON result to");
+        options.addOption("f", true, "membership filter in front of the PATRICIA Trie: bloom or xor");
+        options.addOption("c", true, "capacity of a hot key cache in front of the symbol table");
+        options.addOption("e", true, "eviction policy of the hot key cache: clock or tiny_lfu (default)");
+
+        // Parsing command line
+        CommandLineParser parser = new DefaultParser();
+        CommandLine cmd = null;
+        try {
+            cmd = parser.parse(options, args);
+
+            // Checking for filename
+            if (cmd.hasOption('n')) {
+                fileName = cmd.getOptionValue('n');
+            } else {
+                throw new InvalidParameterException("Filename wasn't specified");
+            }
+
+            // Checking for data structure
+            if (cmd.hasOption('d')) {
+                dataStructure = cmd.getOptionValue('d');
+            } else {
+                throw new InvalidParameterException("Data strucure wasn't specified");
+            }
+
+            if (cmd.hasOption('t')) threads = Integer.parseInt(cmd.getOptionValue('t'));
+            if (cmd.hasOption('r')) readPercent = Integer.parseInt(cmd.getOptionValue('r'));
+            if (cmd.hasOption('w')) writePercent = Integer.parseInt(cmd.getOptionValue('w'));
+            if (cmd.hasOption('m')) missPercent = Integer.parseInt(cmd.getOptionValue('m'));
+            if (cmd.hasOption('z')) theta = Double.parseDouble(cmd.getOptionValue('z'));
+            if (cmd.hasOption('s')) seconds = Double.parseDouble(cmd.getOptionValue('s'));
+            if (cmd.hasOption('u')) warmupSeconds = Double.parseDouble(cmd.getOptionValue('u'));
+            if (cmd.hasOption('q')) rate = Long.parseLong(cmd.getOptionValue('q'));
+            if (cmd.hasOption('j')) jsonFileName = cmd.getOptionValue('j');
+            if (cmd.hasOption('f')) filter = FilteredSymbolTable.Filter.valueOf(cmd.getOptionValue('f').toUpperCase());
+            if (cmd.hasOption('c')) cacheCapacity = Integer.parseInt(cmd.getOptionValue('c'));
+            if (cmd.hasOption('e')) evictionPolicy = EvictionPolicy.valueOf(cmd.getOptionValue('e').toUpperCase());
+
+            if (readPercent < 0 || writePercent < 0 || missPercent < 0
+                    || readPercent + writePercent + missPercent != 100) {
+                throw new InvalidParameterException("Read, write and miss percentages must add up to 100");
+            }
+
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+
+        // Create symbol table
+        SymbolTable<String> table = SymbolTableFactory.createSymbolTable(dataStructure);
+
+        // Symbol table cannot be null
+        if (table == null) {
+            throw new NullPointerException("Invalid symbol table type");
+        }
+
+        // Filters only go in front of the PATRICIA Trie
+        if (filter != null && !(table instanceof PatriciaSymbolTable)) {
+            throw new InvalidParameterException("Membership filters are only supported by [PATRICIA Trie]");
+        }
+        FilteredSymbolTable<String> filtered = filter != null
+                ? new FilteredSymbolTable<>((PatriciaSymbolTable<String>) table, filter, 10)
+                : null;
+        SymbolTable<String> uncached = filtered != null ? filtered : table;
+        SymbolTable<String> st = cacheCapacity > 0
+                ? SymbolTableFactory.createCachingSymbolTable(uncached, cacheCapacity, evictionPolicy)
+                : uncached;
+
+        // Urls, shuffled so popular ranks don't follow file order
+        List<String> urls = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(fileName)))) {
+
+            String line;
+            while ((line = br.readLine()) != null) {
+
+                // DMOZ first column is the url
+                urls.add(line.toLowerCase().split(",")[0]);
+            }
+        }
+        Collections.shuffle(urls, new Random(42));
+
+        int present = (int) (urls.size() * (1d - MISS_SHARE));
+        List<String> hits = urls.subList(0, present);
+        List<String> misses = urls.subList(present, urls.size());
+
+        // Keys have to be there for every kind of operation asked for
+        if (missPercent > 0 && misses.isEmpty()) {
+            throw new InvalidParameterException("Too few urls to keep some out for misses. Use -m 0");
+        }
+        if (readPercent + writePercent > 0 && hits.isEmpty()) {
+            throw new InvalidParameterException("No urls to read or write");
+        }
+
+        hits.forEach(url -> st.put(url, VALUE));
+        if (filtered != null) filtered.freeze();
+
+        System.out.printf("Loaded %,d urls, %,d kept out for misses\n", st.size(), misses.size());
+        System.out.printf("Running %d threads, %d%% reads %d%% writes %d%% misses, %s keys, %s\n",
+                threads, readPercent, writePercent, missPercent,
+                theta > 0d ? "Zipfian (" + theta + ")" : "uniform",
+                rate > 0 ? String.format("open loop at %,d ops/s", rate) : "closed loop");
+
+        Workload workload = new Workload(st, cacheCapacity > 0, hits, misses, readPercent, writePercent,
+                theta > 0d ? new ZipfianGenerator(hits.size(), theta) : null,
+                rate > 0 ? threads * 1000000000L / rate : 0L);
+
+        // Warm up, then the measured run
+        run(workload, threads, (long) (warmupSeconds * 1e9d));
+        if (filtered != null) filtered.resetStatistics();
+        long elapsed = System.nanoTime();
+        LatencyHistogram[] histograms = run(workload, threads, (long) (seconds * 1e9d));
+        elapsed = System.nanoTime() - elapsed;
+
+        // Print results to be compared
+        LatencyHistogram all = new LatencyHistogram();
+        for (LatencyHistogram h : histograms) all.add(h);
+        double throughput = all.getTotalCount() / (elapsed / 1e9d);
+
+        System.out.printf("Throughput: %,.0f ops/s\n", throughput);
+        System.out.println(summary("all", all));
+        for (Operation op : Operation.values()) {
+            if (histograms[op.ordinal()].getTotalCount() > 0) {
+                System.out.println(summary(op.name().toLowerCase(), histograms[op.ordinal()]));
+            }
+        }
+        if (filtered != null) System.out.println(filtered);
+        if (st instanceof CachingSymbolTable) System.out.println(st);
+
+        StringBuilder json = new StringBuilder();
+        json.append(String.format("{\"dataStructure\":\"%s\",\"threads\":%d,\"read\":%d,\"write\":%d,\"miss\":%d,"
+                        + "\"theta\":%s,\"targetRate\":%d,\"seconds\":%.3f,\"throughput\":%.1f,\"all\":%s",
+                dataStructure, threads, readPercent, writePercent, missPercent, theta, rate,
+                elapsed / 1e9d, throughput, json(all)));
+        for (Operation op : Operation.values()) {
+            json.append(",\"").append(op.name().toLowerCase()).append("\":").append(json(histograms[op.ordinal()]));
+        }
+        if (filtered != null) {
+            json.append(String.format(",\"filter\":\"%s\",\"filterBytes\":%d,\"falsePositiveRate\":%.5f",
+                    filter.name().toLowerCase(), filtered.getFilterBytes(), filtered.getFalsePositiveRate()));
+        }
+        json.append('}');
+
+        System.out.println(json);
+        if (jsonFileName != null) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(jsonFileName, true))) {
+                out.println(json);
+            }
+        }
+    }
+
+    /*
+    Runs threads workers for duration nanoseconds and merges their histograms,
+    one per operation.
+     */
+    private static LatencyHistogram[] run(Workload workload, int threads, long duration) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<LatencyHistogram[]>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> workload.run(start, start + duration)));
+        }
+
+        LatencyHistogram[] merged = new LatencyHistogram[Operation.values().length];
+        for (int i = 0; i < merged.length; i++) merged[i] = new LatencyHistogram();
+        for (Future<LatencyHistogram[]> result : results) {
+            LatencyHistogram[] h = result.get();
+            for (int i = 0; i < merged.length; i++) merged[i].add(h[i]);
+        }
+        executor.shutdown();
+
+        return merged;
+    }
+
+    private static String summary(String name, LatencyHistogram h) {
+
+        return String.format("%-5s count: %,d mean: %,.1fus p50: %,.1fus p99: %,.1fus p99.9: %,.1fus max: %,.1fus",
+                name, h.getTotalCount(), h.getMean() / 1000d, h.getValueAtPercentile(50d) / 1000d,
+                h.getValueAtPercentile(99d) / 1000d, h.getValueAtPercentile(99.9d) / 1000d, h.getMax() / 1000d);
+    }
+
+    // Latencies in nanoseconds
+    private static String json(LatencyHistogram h) {
+
+        return String.format("{\"count\":%d,\"mean\":%.1f,\"p50\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+                h.getTotalCount(), h.getMean(), h.getValueAtPercentile(50d),
+                h.getValueAtPercentile(99d), h.getValueAtPercentile(99.9d), h.getMax());
+    }
+
+    /*
+    What every thread runs: the table, its lock, the keys and how to pick them.
+     */
+    private static class Workload {
+
+        private final SymbolTable<String> st;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Lock readLock; //the write lock when lookups change the table
+        private final List<String> hits;
+        private final List<String> misses;
+        private final int readPercent;
+        private final int writePercent;
+        private final ZipfianGenerator zipfian; //null for uniform keys
+        private final long interval; //nanoseconds between a thread's operations, 0 for closed loop
+
+        Workload(SymbolTable<String> st, boolean exclusiveReads, List<String> hits, List<String> misses,
+                 int readPercent, int writePercent, ZipfianGenerator zipfian, long interval) {
+
+            this.st = st;
+            this.readLock = exclusiveReads ? lock.writeLock() : lock.readLock();
+            this.hits = hits;
+            this.misses = misses;
+            this.readPercent = readPercent;
+            this.writePercent = writePercent;
+            this.zipfian = zipfian;
+            this.interval = interval;
+        }
+
+        LatencyHistogram[] run(long start, long end) {
+
+            LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+            for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+
+            Random random = ThreadLocalRandom.current();
+            long scheduled = start;
+
+            for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+
+                /*
+                Open loop: wait for the scheduled time, unless already late. Short waits
+                yield instead of spinning, so threads outnumbering cores don't delay each other.
+                 */
+                if (interval > 0) {
+                    scheduled += interval;
+                    while (now < scheduled) {
+                        if (scheduled - now > 100000L) LockSupport.parkNanos(scheduled - now - 50000L);
+                        else Thread.yield();
+                        now = System.nanoTime();
+                    }
+                }
+
+                int dice = random.nextInt(100);
+                Operation op = dice < readPercent ? Operation.READ
+                        : dice < readPercent + writePercent ? Operation.WRITE : Operation.MISS;
+
+                String key = op == Operation.MISS
+                        ? misses.get(random.nextInt(misses.size()))
+                        : hits.get(zipfian != null ? (int) zipfian.next(random) : random.nextInt(hits.size()));
+
+                long begin = interval > 0 ? scheduled : now;
+                if (op == Operation.WRITE) {
+                    lock.writeLock().lock();
+                    try {
+                        st.put(key, VALUE);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                } else {
+                    readLock.lock();
+                    try {
+                        st.get(key);
+                    } finally {
+                        readLock.unlock();
+                    }
+                }
+
+                histograms[op.ordinal()].record(System.nanoTime() - begin);
+            }
+
+            return histograms;
+        }
+    }
+}
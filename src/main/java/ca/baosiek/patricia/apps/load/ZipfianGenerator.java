@@ -0,0 +1,55 @@
+package ca.baosiek.patricia.apps.load;
+
+import java.util.Random;
+
+/**
+ * Draws ranks in [0, n) following a Zipfian distribution, rank 0 being the most
+ * popular, with the constant time method from Gray et al., "Quickly Generating
+ * Billion-Record Synthetic Databases" (also used by YCSB). The zeta sum is
+ * computed once, so one instance can be shared by every thread, each one
+ * drawing with its own Random.
+ */
+public class ZipfianGenerator {
+
+    private final long n;
+    private final double theta; //skew. The higher, the fewer keys take most draws
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+
+    /**
+     * @param n     number of ranks
+     * @param theta skew, in (0, 1). 0.99 is the usual choice
+     */
+    public ZipfianGenerator(long n, double theta) {
+
+        if (n < 2 || theta <= 0d || theta >= 1d) {
+            throw new IllegalArgumentException("Zipfian needs at least 2 ranks and theta in (0, 1)");
+        }
+
+        this.n = n;
+        this.theta = theta;
+        this.alpha = 1d / (1d - theta);
+        this.zetaN = zeta(n, theta);
+        this.eta = (1d - Math.pow(2d / n, 1d - theta)) / (1d - zeta(2, theta) / zetaN);
+    }
+
+    public long next(Random random) {
+
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+
+        if (uz < 1d) return 0;
+        if (uz < 1d + Math.pow(0.5d, theta)) return 1;
+
+        return Math.min(n - 1, (long) (n * Math.pow(eta * u - eta + 1d, alpha)));
+    }
+
+    private static double zeta(long n, double theta) {
+
+        double sum = 0d;
+        for (long i = 1; i <= n; i++) sum += 1d / Math.pow(i, theta);
+
+        return sum;
+    }
+}
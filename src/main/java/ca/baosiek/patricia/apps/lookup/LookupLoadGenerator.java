@@ -0,0 +1,236 @@
+package ca.baosiek.patricia.apps.lookup;
+
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives a LookupServer with a number of concurrent clients, each sending
+ * batches of pipelined requests for names picked at random from a DMOZ file.
+ * Reports queries per second and latency percentiles.
+ */
+public class LookupLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+
+        // Initialize command parameters
+        String fileName = null;
+        int port = LookupProtocol.DEFAULT_PORT;
+        int clients = 4;
+        int queries = 100000;
+        int batch = 1;
+        boolean udp = false;
+
+        // Setting the options
+        Options options = new Options();
+        options.addOption("n", true, "filename");
+        options.addOption("p", true, "port");
+        options.addOption("c", true, "number of concurrent clients");
+        options.addOption("q", true, "queries per client");
+        options.addOption("b", true, "requests pipelined per batch");
+        options.addOption("u", false, "use UDP instead of TCP");
+
+        // Parsing command line
+        CommandLineParser parser = new DefaultParser();
+        CommandLine cmd = null;
+        try {
+            cmd = parser.parse(options, args);
+
+            // Checking for filename
+            if (cmd.hasOption('n')) {
+                fileName = cmd.getOptionValue('n');
+            } else {
+                throw new InvalidParameterException("Filename wasn't specified");
+            }
+
+            if (cmd.hasOption('p')) port = Integer.parseInt(cmd.getOptionValue('p'));
+            if (cmd.hasOption('c')) clients = Integer.parseInt(cmd.getOptionValue('c'));
+            if (cmd.hasOption('q')) queries = Integer.parseInt(cmd.getOptionValue('q'));
+            if (cmd.hasOption('b')) batch = Integer.parseInt(cmd.getOptionValue('b'));
+
+            // Ids of a batch's requests are told apart by their lower 16 bits
+            if (batch < 1 || batch > 65536) {
+                throw new InvalidParameterException("Batch must be between 1 and 65536 requests");
+            }
+            udp = cmd.hasOption('u');
+
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+
+        // Names to query
+        List<String> names = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(fileName)))) {
+
+            String line;
+            while ((line = br.readLine()) != null) {
+
+                // DMOZ first column is the url. Names too long for a request are left out
+                String name = line.toLowerCase().split(",")[0];
+                if (LookupProtocol.isValidName(name)) names.add(name);
+            }
+        }
+
+        System.out.printf("Running %d %s clients, %,d queries each, %d per batch\n",
+                clients, udp ? "UDP" : "TCP", queries, batch);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>();
+
+        final int finalPort = port;
+        final int finalQueries = queries;
+        final int finalBatch = batch;
+        final boolean finalUdp = udp;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            results.add(executor.submit(() -> finalUdp
+                    ? runUdpClient(names, finalPort, finalQueries, finalBatch)
+                    : runTcpClient(names, finalPort, finalQueries, finalBatch)));
+        }
+
+        // Merging every client's latencies
+        long[] latencies = new long[0];
+        for (Future<long[]> result : results) {
+            long[] l = result.get();
+            int length = latencies.length;
+            latencies = Arrays.copyOf(latencies, length + l.length);
+            System.arraycopy(l, 0, latencies, length, l.length);
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        // Print results to be compared
+        Arrays.sort(latencies);
+        System.out.printf("Answered queries: %,d of %,d\n", latencies.length, (long) clients * queries);
+        System.out.printf("Throughput: %,.0f queries/s\n", latencies.length / (elapsed / 1e9d));
+        System.out.printf("Latency p50: %,.1fus p90: %,.1fus p99: %,.1fus p99.9: %,.1fus max: %,.1fus\n",
+                percentile(latencies, 50d), percentile(latencies, 90d), percentile(latencies, 99d),
+                percentile(latencies, 99.9d), percentile(latencies, 100d));
+    }
+
+    /*
+    Each response's latency is measured from the moment its batch was flushed.
+     */
+    private static long[] runTcpClient(List<String> names, int port, int queries, int batch) throws IOException {
+
+        long[] latencies = new long[queries];
+        int answered = 0;
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            socket.setTcpNoDelay(true);
+            while (answered < queries) {
+
+                int n = Math.min(batch, queries - answered);
+                for (int i = 0; i < n; i++) {
+                    LookupProtocol.writeRequest(out, answered + i, randomName(names));
+                }
+
+                long sent = System.nanoTime();
+                out.flush();
+
+                for (int i = 0; i < n; i++) {
+                    LookupProtocol.readResponse(in);
+                    latencies[answered++] = System.nanoTime() - sent;
+                }
+            }
+        }
+
+        return latencies;
+    }
+
+    /*
+    A batch travels in as few datagrams as MAX_DATAGRAM allows, all sent at once, and
+    its responses come back in one or more, none larger than MAX_DATAGRAM. Responses to requests no longer outstanding, as
+    late ones from a batch given up on, are discarded. Lost datagrams are not
+    retried, they simply don't count as answered.
+     */
+    private static long[] runUdpClient(List<String> names, int port, int queries, int batch) throws IOException {
+
+        long[] latencies = new long[queries];
+        int answered = 0;
+        byte[] buffer = new byte[LookupProtocol.MAX_DATAGRAM]; // the server never sends more at once
+        Set<Integer> outstanding = new HashSet<>(); // ids of the current batch not answered yet
+
+        try (DatagramSocket socket = new DatagramSocket()) {
+
+            socket.connect(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(1000);
+
+            for (int sentQueries = 0; sentQueries < queries; ) {
+
+                int n = Math.min(batch, queries - sentQueries);
+                List<byte[]> datagrams = new ArrayList<>();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                outstanding.clear();
+                for (int i = 0; i < n; i++) {
+
+                    // A new datagram whenever the next request might not fit in this one
+                    if (bytes.size() + LookupProtocol.MAX_REQUEST > LookupProtocol.MAX_DATAGRAM) {
+                        datagrams.add(bytes.toByteArray());
+                        bytes.reset();
+                    }
+
+                    LookupProtocol.writeRequest(out, sentQueries + i, randomName(names));
+                    outstanding.add((sentQueries + i) & 0xffff);
+                }
+                datagrams.add(bytes.toByteArray());
+                sentQueries += n;
+
+                long sent = System.nanoTime();
+                for (byte[] datagram : datagrams) socket.send(new DatagramPacket(datagram, datagram.length));
+
+                while (!outstanding.isEmpty()) {
+
+                    DatagramPacket response = new DatagramPacket(buffer, buffer.length);
+                    try {
+                        socket.receive(response);
+                    } catch (SocketTimeoutException e) {
+                        break;
+                    }
+                    long latency = System.nanoTime() - sent;
+
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer, 0, response.getLength()));
+                    while (in.available() > 0) {
+                        if (outstanding.remove(LookupProtocol.readResponse(in))) latencies[answered++] = latency;
+                    }
+                }
+            }
+        }
+
+        return Arrays.copyOf(latencies, answered);
+    }
+
+    private static String randomName(List<String> names) {
+
+        return names.get(ThreadLocalRandom.current().nextInt(names.size()));
+    }
+
+    // Nearest rank percentile, in microseconds
+    private static double percentile(long[] sorted, double p) {
+
+        if (sorted.length == 0) return 0d;
+
+        int rank = (int) Math.ceil(p / 100d * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1000d;
+    }
+}
@@ -0,0 +1,88 @@
+package ca.baosiek.patricia.apps.lookup;
+
+import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A simplified DNS like protocol, the same over UDP and TCP.
+ *
+ * Request:  | id (2 bytes) | name length (1 byte) | name (UTF-8) |
+ * Response: | id (2 bytes) | rcode (1 byte) | value length (1 byte) | value (UTF-8) |
+ *
+ * Several requests may be sent back to back, i.e. pipelined, either in one
+ * datagram or in a TCP stream. Responses come back in the same order and,
+ * for UDP, in as few datagrams as MAX_DATAGRAM allows.
+ */
+public class LookupProtocol {
+
+    public static final int DEFAULT_PORT = 5353;
+    public static final int MAX_DATAGRAM = 65507;
+    public static final int MAX_NAME = 255; // bytes, as its length takes one byte
+    public static final int MAX_REQUEST = 3 + MAX_NAME; // id, length and name
+    public static final int MAX_RESPONSE = 4 + 255; // id, rcode, length and value
+
+    public static final int NO_ERROR = 0; // name found
+    public static final int SERV_FAIL = 2; // name found, but its value doesn't fit in a response
+    public static final int NX_DOMAIN = 3; // name not found
+
+    /**
+     * @return whether name fits in a request
+     */
+    public static boolean isValidName(String name) {
+
+        return name.getBytes(StandardCharsets.UTF_8).length <= MAX_NAME;
+    }
+
+    public static void writeRequest(DataOutputStream out, int id, String name) throws IOException {
+
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME) throw new IllegalArgumentException("Name longer than 255 bytes: " + name);
+
+        out.writeShort(id);
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads one request, looks its name up and writes the response.
+     */
+    public static void answer(DataInputStream in, DataOutputStream out, SymbolTable<String> st) throws IOException {
+
+        int id = in.readUnsignedShort();
+        byte[] name = new byte[in.readUnsignedByte()];
+        in.readFully(name);
+
+        String value = st.get(new String(name, StandardCharsets.UTF_8));
+        byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+
+        out.writeShort(id);
+        if (bytes == null) {
+            out.writeByte(NX_DOMAIN);
+            out.writeByte(0);
+        } else if (bytes.length > 255) {
+            out.writeByte(SERV_FAIL);
+            out.writeByte(0);
+        } else {
+            out.writeByte(NO_ERROR);
+            out.writeByte(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads one response.
+     * @return the id of the request answered. Only the lower 16 bits are meaningful
+     */
+    public static int readResponse(DataInputStream in) throws IOException {
+
+        int id = in.readUnsignedShort();
+        in.readUnsignedByte(); // rcode
+        in.readFully(new byte[in.readUnsignedByte()]); // value
+
+        return id;
+    }
+}
@@ -0,0 +1,184 @@
+package ca.baosiek.patricia.apps.lookup;
+
+import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.SymbolTableFactory;
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves lookups from a table loaded the same way DNSTable does, over UDP and TCP
+ * on localhost. Every datagram and every TCP connection is handled by its own task.
+ * The table is only read once loaded, so no further synchronization is needed.
+ */
+public class LookupServer {
+
+    public static void main(String[] args) throws IOException {
+
+        // Initialize command parameters
+        String fileName = null;
+        String dataStructure = null;
+        int port = LookupProtocol.DEFAULT_PORT;
+
+        // Setting the options
+        Options options = new Options();
+        options.addOption("n", true, "filename");
+        options.addOption("d", true, "data structure");
+        options.addOption("p", true, "port");
+
+        // Parsing command line
+        CommandLineParser parser = new DefaultParser();
+        CommandLine cmd = null;
+        try {
+            cmd = parser.parse(options, args);
+
+            // Checking for filename
+            if (cmd.hasOption('n')) {
+                fileName = cmd.getOptionValue('n');
+            } else {
+                throw new InvalidParameterException("Filename wasn't specified");
+            }
+
+            // Checking for data structure
+            if (cmd.hasOption('d')) {
+                dataStructure = cmd.getOptionValue('d');
+            } else {
+                throw new InvalidParameterException("Data strucure wasn't specified");
+            }
+
+            // Checking for port
+            if (cmd.hasOption('p')) {
+                port = Integer.parseInt(cmd.getOptionValue('p'));
+            }
+
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+
+        // Create symbol table
+        SymbolTable<String> st = SymbolTableFactory.createSymbolTable(dataStructure);
+
+        // Symbol table cannot be null
+        if (st == null) {
+            throw new NullPointerException("Invalid symbol table type");
+        }
+
+        // Load urls into the table
+        System.out.printf("Loading %s\n", fileName);
+        long start = System.currentTimeMillis();
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(fileName)))) {
+
+            String line;
+            while ((line = br.readLine()) != null) {
+
+                // DMOZ first column is the url
+                st.put(line.toLowerCase().split(",")[0], "999.999.999.999");
+            }
+        }
+        System.out.printf("Loaded %,d urls in %,dms\n", st.size(), (System.currentTimeMillis() - start));
+
+        // One task per datagram or connection
+        ExecutorService executor = Executors.newCachedThreadPool();
+        InetAddress localhost = InetAddress.getLoopbackAddress();
+
+        DatagramSocket udp = new DatagramSocket(port, localhost);
+        ServerSocket tcp = new ServerSocket(port, 128, localhost);
+        System.out.printf("Serving on %s:%d (UDP and TCP)\n", localhost.getHostAddress(), port);
+
+        Thread udpReceiver = new Thread(() -> receiveDatagrams(udp, st, executor), "udp-receiver");
+        udpReceiver.start();
+
+        while (!tcp.isClosed()) {
+
+            Socket socket = tcp.accept();
+            executor.execute(() -> serveConnection(socket, st));
+        }
+    }
+
+    /*
+    Datagrams are received into one buffer, and each task gets a copy of only
+    the bytes its datagram carried.
+     */
+    private static void receiveDatagrams(DatagramSocket udp, SymbolTable<String> st, ExecutorService executor) {
+
+        byte[] buffer = new byte[LookupProtocol.MAX_DATAGRAM];
+        DatagramPacket request = new DatagramPacket(buffer, buffer.length);
+
+        while (!udp.isClosed()) {
+
+            try {
+                request.setLength(buffer.length);
+                udp.receive(request);
+
+                byte[] data = Arrays.copyOf(buffer, request.getLength());
+                SocketAddress client = request.getSocketAddress();
+                executor.execute(() -> answerDatagram(udp, data, client, st));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /*
+    A datagram may carry several requests. Their responses are batched
+    into datagrams sent back to the client, a new one started whenever the
+    next response might not fit in the current one.
+     */
+    private static void answerDatagram(DatagramSocket udp, byte[] data, SocketAddress client, SymbolTable<String> st) {
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length * 2);
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            while (in.available() > 0) {
+
+                if (bytes.size() + LookupProtocol.MAX_RESPONSE > LookupProtocol.MAX_DATAGRAM) {
+                    udp.send(new DatagramPacket(bytes.toByteArray(), bytes.size(), client));
+                    bytes.reset();
+                }
+
+                LookupProtocol.answer(in, out, st);
+            }
+
+            if (bytes.size() > 0) {
+                udp.send(new DatagramPacket(bytes.toByteArray(), bytes.size(), client));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*
+    Responses are flushed only once no more requests are buffered, so pipelining
+    clients get their responses batched in as few writes as possible.
+     */
+    private static void serveConnection(Socket socket, SymbolTable<String> st) {
+
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            socket.setTcpNoDelay(true);
+            while (true) {
+
+                LookupProtocol.answer(in, out, st);
+                if (in.available() == 0) out.flush();
+            }
+        } catch (EOFException e) {
+            // Client closed the connection
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ca.baosiek.patricia.apps.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits the key space into contiguous ranges, one per worker, in the order PATRICIA
+ * tries keep keys (bit by bit, i.e. by String.compareTo). Worker i holds the keys from
+ * its lower bound, included, to worker i + 1's lower bound, excluded. Worker 0's lower
+ * bound is always the empty key. Every range is a run of consecutive leaves of a trie
+ * holding all keys, so a worker's trie is a subtree of the whole table's.
+ *
+ * Maps are immutable. Rebalancing builds a new one.
+ */
+public class PartitionMap {
+
+    private final String[] lowerBounds; //sorted, lowerBounds[0] is ""
+
+    /**
+     * @param lowerBounds lower bound of every worker's range but the first one's, sorted
+     */
+    public PartitionMap(List<String> lowerBounds) {
+
+        this.lowerBounds = new String[lowerBounds.size() + 1];
+        this.lowerBounds[0] = "";
+
+        for (int i = 0; i < lowerBounds.size(); i++) {
+            this.lowerBounds[i + 1] = lowerBounds.get(i);
+            if (this.lowerBounds[i + 1].compareTo(this.lowerBounds[i]) <= 0) {
+                throw new IllegalArgumentException("Lower bounds must be sorted and distinct.");
+            }
+        }
+    }
+
+    /**
+     * Splits the first character's printable ASCII range evenly. A starting point
+     * before any key is known, meant to be rebalanced.
+     */
+    public static PartitionMap even(int workers) {
+
+        List<String> bounds = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+            bounds.add(String.valueOf((char) (' ' + i * ('\u007f' - ' ') / workers)));
+        }
+
+        return new PartitionMap(bounds);
+    }
+
+    /**
+     * Splits a sample of keys in workers ranges holding about as many keys each.
+     */
+    public static PartitionMap fromSample(List<String> sample, int workers) {
+
+        List<String> sorted = new ArrayList<>(sample);
+        Collections.sort(sorted);
+
+        List<String> bounds = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+
+            String bound = sorted.get((int) ((long) i * sorted.size() / workers));
+            if (bound.isEmpty() || (!bounds.isEmpty() && bound.equals(bounds.get(bounds.size() - 1)))) {
+                throw new IllegalArgumentException("Sample too small to split in " + workers + " ranges.");
+            }
+            bounds.add(bound);
+        }
+
+        return new PartitionMap(bounds);
+    }
+
+    /**
+     * @return the worker holding key
+     */
+    public int route(String key) {
+
+        // Last lower bound not after key
+        int i = Arrays.binarySearch(lowerBounds, key);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    public int workers() {
+
+        return lowerBounds.length;
+    }
+
+    public String lowerBound(int worker) {
+
+        return lowerBounds[worker];
+    }
+
+    /**
+     * @return worker's upper bound, excluded, or null for the last worker
+     */
+    public String upperBound(int worker) {
+
+        return worker + 1 < lowerBounds.length ? lowerBounds[worker + 1] : null;
+    }
+
+    @Override
+    public String toString() {
+
+        return Arrays.toString(lowerBounds);
+    }
+}
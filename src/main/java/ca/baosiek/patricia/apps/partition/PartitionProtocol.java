@@ -0,0 +1,263 @@
+package ca.baosiek.patricia.apps.partition;
+
+import ca.baosiek.patricia.tries.PATRICIATrie;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * What clients and PartitionWorkers say to each other over TCP. Strings are sent
+ * as in DataOutputStream.writeUTF, so keys and values are limited to 65535 bytes.
+ * Values may be null, sent as "nothing" after a false boolean.
+ *
+ * Request:  | op (1 byte) | arguments |
+ * Response: | result |
+ *
+ * PUT      key, value or nothing       ->  ack (1 byte)
+ * GET      key                         ->  found (boolean), value if found
+ * REMOVE   key                         ->  found (boolean), whether a value was removed
+ * SIZE                                 ->  size (long)
+ * SCAN     from, to or nothing, limit  ->  count (int), count times key, value or nothing. The
+ *                                          first limit entries of the range, in key order. They
+ *                                          stay in the worker, so a client moving them removes
+ *                                          them once they are safe elsewhere
+ * KEYS_AT  count (int), count ranks    ->  count times found (boolean), key at rank if found.
+ *                                          Ranks are ascending, in key order
+ * SHUTDOWN                             ->  nothing, the worker exits
+ *
+ * Requests may be pipelined. Responses come back in the same order.
+ */
+public class PartitionProtocol {
+
+    public static final int DEFAULT_PORT = 7070;
+
+    static final int PUT = 1;
+    static final int GET = 2;
+    static final int SIZE = 3;
+    static final int SCAN = 4;
+    static final int KEYS_AT = 5;
+    static final int SHUTDOWN = 6;
+    static final int REMOVE = 7;
+
+    /**
+     * @param key cannot be null
+     * @param value may be null
+     */
+    public static void writePut(DataOutputStream out, String key, String value) throws IOException {
+
+        if (key == null) throw new NullPointerException("Key cannot be null.");
+
+        out.writeByte(PUT);
+        out.writeUTF(key);
+        writeOptionalString(out, value);
+    }
+
+    public static void writeGet(DataOutputStream out, String key) throws IOException {
+
+        out.writeByte(GET);
+        out.writeUTF(key);
+    }
+
+    public static void writeRemove(DataOutputStream out, String key) throws IOException {
+
+        out.writeByte(REMOVE);
+        out.writeUTF(key);
+    }
+
+    public static void writeSize(DataOutputStream out) throws IOException {
+
+        out.writeByte(SIZE);
+    }
+
+    /**
+     * @param to excluded, null for no upper bound
+     * @param limit maximum number of entries read
+     */
+    public static void writeScan(DataOutputStream out, String from, String to, int limit) throws IOException {
+
+        out.writeByte(SCAN);
+        out.writeUTF(from);
+        out.writeBoolean(to != null);
+        if (to != null) out.writeUTF(to);
+        out.writeInt(limit);
+    }
+
+    /**
+     * @param ranks ascending
+     */
+    public static void writeKeysAt(DataOutputStream out, List<Long> ranks) throws IOException {
+
+        out.writeByte(KEYS_AT);
+        out.writeInt(ranks.size());
+        for (long rank : ranks) out.writeLong(rank);
+    }
+
+    public static void writeShutdown(DataOutputStream out) throws IOException {
+
+        out.writeByte(SHUTDOWN);
+    }
+
+    public static void readAck(DataInputStream in) throws IOException {
+
+        in.readByte();
+    }
+
+    /**
+     * Reads the response to GET, or one key of the response to KEYS_AT.
+     * @return the string found or null
+     */
+    public static String readOptionalString(DataInputStream in) throws IOException {
+
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Reads the response to REMOVE.
+     */
+    public static boolean readFound(DataInputStream in) throws IOException {
+
+        return in.readBoolean();
+    }
+
+    public static long readSize(DataInputStream in) throws IOException {
+
+        return in.readLong();
+    }
+
+    public static Map<String, String> readEntries(DataInputStream in) throws IOException {
+
+        int count = in.readInt();
+        Map<String, String> entries = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) entries.put(in.readUTF(), readOptionalString(in));
+
+        return entries;
+    }
+
+    /**
+     * Reads one request, whole, without running it.
+     */
+    public static Request readRequest(DataInputStream in) throws IOException {
+
+        int op = in.readUnsignedByte();
+
+        switch (op) {
+
+            case PUT:
+                return new Request(op, in.readUTF(), readOptionalString(in), 0, null);
+
+            case GET:
+            case REMOVE:
+                return new Request(op, in.readUTF(), null, 0, null);
+
+            case SCAN:
+                String from = in.readUTF();
+                String to = in.readBoolean() ? in.readUTF() : null;
+                return new Request(op, from, to, in.readInt(), null);
+
+            case KEYS_AT:
+                long[] ranks = new long[in.readInt()];
+                for (int i = 0; i < ranks.length; i++) ranks[i] = in.readLong();
+                return new Request(op, null, null, 0, ranks);
+
+            case SIZE:
+            case SHUTDOWN:
+                return new Request(op, null, null, 0, null);
+
+            default:
+                throw new IOException("Unknown operation " + op);
+        }
+    }
+
+    /**
+     * Runs request against trie and writes the response.
+     * @return false when the request was SHUTDOWN
+     */
+    public static boolean answer(Request request, DataOutputStream out, PATRICIATrie<String> trie) throws IOException {
+
+        switch (request.op) {
+
+            case PUT:
+                trie.put(request.key, request.value);
+                out.writeByte(1);
+                return true;
+
+            case GET:
+                writeOptionalString(out, trie.get(request.key));
+                return true;
+
+            case REMOVE:
+                out.writeBoolean(trie.remove(request.key) != null);
+                return true;
+
+            case SIZE:
+                out.writeLong(trie.size());
+                return true;
+
+            case SCAN:
+                String to = request.value;
+
+                // The walk starts at from and stops past to
+                List<Map.Entry<String, String>> entries = trie.entryStream(request.key)
+                        .takeWhile(e -> to == null || e.getKey().compareTo(to) < 0)
+                        .limit(request.limit)
+                        .collect(Collectors.toList());
+
+                out.writeInt(entries.size());
+                for (Map.Entry<String, String> entry : entries) {
+                    out.writeUTF(entry.getKey());
+                    writeOptionalString(out, entry.getValue());
+                }
+                return true;
+
+            case KEYS_AT:
+                // Ranks need counting keys in order, as the trie keeps no subtree sizes. One walk serves them all
+                Iterator<String> keys = trie.entryStream().map(Map.Entry::getKey).iterator();
+                String key = null;
+                long position = -1; //rank of key
+                for (long rank : request.ranks) {
+                    while (position < rank && keys.hasNext()) {
+                        key = keys.next();
+                        position++;
+                    }
+                    writeOptionalString(out, position == rank ? key : null);
+                }
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * A request read off a connection, so it can be run without waiting for the client.
+     */
+    public static final class Request {
+
+        private final int op;
+        private final String key; //PUT, GET and REMOVE key, SCAN from
+        private final String value; //PUT value, SCAN to
+        private final int limit; //SCAN limit
+        private final long[] ranks; //KEYS_AT ranks
+
+        private Request(int op, String key, String value, int limit, long[] ranks) {
+
+            this.op = op;
+            this.key = key;
+            this.value = value;
+            this.limit = limit;
+            this.ranks = ranks;
+        }
+    }
+
+    private static void writeOptionalString(DataOutputStream out, String s) throws IOException {
+
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+}
@@ -0,0 +1,96 @@
+package ca.baosiek.patricia.apps.partition;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.tries.PATRICIATrie;
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A process holding one partition of a PartitionedSymbolTable in a PATRICIATrie,
+ * served over TCP on localhost. Connections are served by their own threads,
+ * taking turns on the trie.
+ */
+public class PartitionWorker {
+
+    public static void main(String[] args) throws IOException {
+
+        // Initialize command parameters
+        int port = PartitionProtocol.DEFAULT_PORT;
+
+        // Setting the options
+        Options options = new Options();
+        options.addOption("p", true, "port");
+
+        // Parsing command line
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine cmd = parser.parse(options, args);
+
+            // Checking for port
+            if (cmd.hasOption('p')) {
+                port = Integer.parseInt(cmd.getOptionValue('p'));
+            }
+
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+
+        PATRICIATrie<String> trie = new PATRICIATrie<>(new StringAnalyser());
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ServerSocket server = new ServerSocket(port, 16, InetAddress.getLoopbackAddress());
+
+        while (!server.isClosed()) {
+
+            Socket socket = server.accept();
+            executor.execute(() -> {
+                if (!serveConnection(socket, trie)) System.exit(0);
+            });
+        }
+    }
+
+    /*
+    Responses are flushed once no more requests are buffered, so pipelined
+    requests get their responses in as few writes as possible. A request is
+    read whole before taking the trie, and its response written after, so a
+    slow client never holds the trie.
+    Returns false when asked to shut down.
+     */
+    private static boolean serveConnection(Socket socket, PATRICIATrie<String> trie) {
+
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            socket.setTcpNoDelay(true);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream response = new DataOutputStream(bytes);
+
+            while (true) {
+
+                PartitionProtocol.Request request = PartitionProtocol.readRequest(in);
+
+                boolean running;
+                bytes.reset();
+                synchronized (trie) {
+                    running = PartitionProtocol.answer(request, response, trie);
+                }
+
+                if (!running) return false;
+                bytes.writeTo(out);
+                if (in.available() == 0) out.flush();
+            }
+        } catch (EOFException e) {
+            // Client closed the connection
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package ca.baosiek.patricia.apps.partition;
+
+import org.apache.commons.cli.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DNSTable over a PartitionedSymbolTable: starts worker processes on localhost, loads
+ * urls in batches, rebalances the partitions and runs batched lookups, reporting
+ * how keys are spread and how long every step took.
+ */
+public class PartitionedDNSTable {
+
+    public static void main(String[] args) throws Exception {
+
+        // Initialize command parameters
+        String fileName = null;
+        int workers = 4;
+        int port = PartitionProtocol.DEFAULT_PORT;
+        int batch = 10000;
+        int queries = 1000000;
+        String workerHeap = null;
+
+        // Setting the options
+        Options options = new Options();
+        options.addOption("n", true, "filename");
+        options.addOption("w", true, "number of worker processes");
+        options.addOption("p", true, "port of the first worker, the others following");
+        options.addOption("b", true, "keys per batch");
+        options.addOption("q", true, "number of lookups");
+        options.addOption("x", true, "maximum heap of every worker. Ex: 2g");
+
+        // Parsing command line
+        CommandLineParser parser = new DefaultParser();
+        CommandLine cmd = null;
+        try {
+            cmd = parser.parse(options, args);
+
+            // Checking for filename
+            if (cmd.hasOption('n')) {
+                fileName = cmd.getOptionValue('n');
+            } else {
+                throw new InvalidParameterException("Filename wasn't specified");
+            }
+
+            if (cmd.hasOption('w')) workers = Integer.parseInt(cmd.getOptionValue('w'));
+            if (cmd.hasOption('p')) port = Integer.parseInt(cmd.getOptionValue('p'));
+            if (cmd.hasOption('b')) batch = Integer.parseInt(cmd.getOptionValue('b'));
+            if (cmd.hasOption('q')) queries = Integer.parseInt(cmd.getOptionValue('q'));
+            if (cmd.hasOption('x')) workerHeap = cmd.getOptionValue('x');
+
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+
+        // Urls to store in the table
+        List<String> urls = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(fileName)))) {
+
+            String line;
+            while ((line = br.readLine()) != null) {
+
+                // DMOZ first column is the url
+                urls.add(line.toLowerCase().split(",")[0]);
+            }
+        }
+
+        System.out.printf("Starting %d workers on ports %d to %d\n", workers, port, port + workers - 1);
+        List<Process> processes = PartitionedSymbolTable.launchWorkers(workers, port, workerHeap);
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(port, PartitionMap.even(workers))) {
+
+            long start = System.currentTimeMillis();
+            for (int first = 0; first < urls.size(); first += batch) {
+
+                Map<String, String> entries = new LinkedHashMap<>();
+                for (String url : urls.subList(first, Math.min(first + batch, urls.size()))) {
+                    entries.put(url, "999.999.999.999");
+                }
+                st.putAll(entries);
+            }
+            System.out.printf("Loaded %,d urls in %,dms\n", st.size(), System.currentTimeMillis() - start);
+            System.out.printf("Keys per worker: %s\n", Arrays.toString(st.sizes()));
+
+            start = System.currentTimeMillis();
+            st.rebalance();
+            System.out.printf("Rebalanced in %,dms\n", System.currentTimeMillis() - start);
+            System.out.printf("Keys per worker: %s, %,d in total\n", Arrays.toString(st.sizes()), st.size());
+            System.out.printf("Lower bounds: %s\n", st.getPartitionMap());
+
+            start = System.currentTimeMillis();
+            int found = 0;
+            for (int done = 0; done < queries; done += batch) {
+
+                List<String> keys = new ArrayList<>();
+                for (int i = 0; i < Math.min(batch, queries - done); i++) {
+                    keys.add(urls.get(ThreadLocalRandom.current().nextInt(urls.size())));
+                }
+                for (String value : st.getAll(keys)) if (value != null) found++;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.printf("Found %,d of %,d urls looked up in %,dms (%,.0f lookups/s)\n",
+                    found, queries, elapsed, queries / (Math.max(elapsed, 1) / 1000d));
+
+            st.shutdownWorkers();
+        } finally {
+            for (Process process : processes) {
+                if (process.isAlive()) process.destroy();
+            }
+        }
+    }
+}
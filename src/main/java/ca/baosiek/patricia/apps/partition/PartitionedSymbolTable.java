@@ -0,0 +1,439 @@
+package ca.baosiek.patricia.apps.partition;
+
+import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A symbol table spread over PartitionWorker processes, each one holding the range
+ * of keys a PartitionMap gives it. The client keeps one connection per worker.
+ *
+ * Batches (getAll, putAll) are grouped by worker and pipelined: requests for every
+ * worker are written before any response is read, so workers answer in parallel.
+ * At most BATCH requests per worker are in flight, so neither side ever blocks
+ * on a full socket buffer.
+ *
+ * Methods take turns on the connections, so one thread uses the table at a time.
+ * The PartitionMap lives in this table only, and workers take any key they are sent.
+ * Once rebalance moved bounds, another table on the same workers would route keys to
+ * the wrong ones, so a set of workers is meant for one table.
+ */
+public class PartitionedSymbolTable implements SymbolTable<String> {
+
+    private static final int BATCH = 256; //requests in flight per worker
+    private static final int CHUNK = 4096; //entries moved at a time by rebalance
+
+    private PartitionMap map;
+    private final Socket[] sockets;
+    private final DataInputStream[] ins;
+    private final DataOutputStream[] outs;
+
+    /**
+     * Connects to workers on localhost, on ports firstPort, firstPort + 1 and so on.
+     * Workers still starting are waited for, up to 10 seconds.
+     */
+    public PartitionedSymbolTable(int firstPort, PartitionMap map) throws IOException {
+
+        this.map = map;
+        this.sockets = new Socket[map.workers()];
+        this.ins = new DataInputStream[map.workers()];
+        this.outs = new DataOutputStream[map.workers()];
+
+        for (int i = 0; i < sockets.length; i++) {
+            sockets[i] = connect(firstPort + i);
+            sockets[i].setTcpNoDelay(true);
+            ins[i] = new DataInputStream(new BufferedInputStream(sockets[i].getInputStream()));
+            outs[i] = new DataOutputStream(new BufferedOutputStream(sockets[i].getOutputStream()));
+        }
+    }
+
+    /**
+     * Starts PartitionWorker processes on localhost, on ports firstPort, firstPort + 1 and
+     * so on, with the same java and class path as this process.
+     */
+    public static List<Process> launchWorkers(int workers, int firstPort, String maxHeap) throws IOException {
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+
+        for (int i = 0; i < workers; i++) {
+
+            List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", System.getProperty("java.class.path")));
+            if (maxHeap != null) command.add("-Xmx" + maxHeap);
+            command.addAll(Arrays.asList(PartitionWorker.class.getName(), "-p", String.valueOf(firstPort + i)));
+
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+        }
+
+        return processes;
+    }
+
+    @Override
+    public synchronized void put(String key, String value) {
+
+        // Key cannot be null
+        if (key == null) return;
+
+        try {
+            int worker = map.route(key);
+            PartitionProtocol.writePut(outs[worker], key, value);
+            outs[worker].flush();
+            PartitionProtocol.readAck(ins[worker]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized String get(String key) {
+
+        if (key == null) return null;
+
+        try {
+            int worker = map.route(key);
+            PartitionProtocol.writeGet(outs[worker], key);
+            outs[worker].flush();
+            return PartitionProtocol.readOptionalString(ins[worker]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized long size() {
+
+        return Arrays.stream(sizes()).sum();
+    }
+
+    /**
+     * @return number of keys held by every worker
+     */
+    public synchronized long[] sizes() {
+
+        try {
+            for (DataOutputStream out : outs) {
+                PartitionProtocol.writeSize(out);
+                out.flush();
+            }
+
+            long[] sizes = new long[ins.length];
+            for (int i = 0; i < ins.length; i++) sizes[i] = PartitionProtocol.readSize(ins[i]);
+
+            return sizes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized List<String> getAll(List<String> keys) {
+
+        String[] values = new String[keys.size()];
+        int[][] byWorker = groupByWorker(keys);
+
+        try {
+            for (int first = 0; ; first += BATCH) {
+
+                boolean sent = false;
+                for (int w = 0; w < outs.length; w++) {
+                    for (int i = first; i < Math.min(first + BATCH, byWorker[w].length); i++) {
+                        PartitionProtocol.writeGet(outs[w], keys.get(byWorker[w][i]));
+                        sent = true;
+                    }
+                    outs[w].flush();
+                }
+
+                if (!sent) break;
+
+                for (int w = 0; w < ins.length; w++) {
+                    for (int i = first; i < Math.min(first + BATCH, byWorker[w].length); i++) {
+                        values[byWorker[w][i]] = PartitionProtocol.readOptionalString(ins[w]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return Arrays.asList(values);
+    }
+
+    @Override
+    public synchronized void putAll(Map<String, ? extends String> entries) {
+
+        List<String> keys = new ArrayList<>(entries.keySet());
+        int[][] byWorker = groupByWorker(keys);
+
+        try {
+            for (int first = 0; ; first += BATCH) {
+
+                boolean sent = false;
+                for (int w = 0; w < outs.length; w++) {
+                    for (int i = first; i < Math.min(first + BATCH, byWorker[w].length); i++) {
+                        String key = keys.get(byWorker[w][i]);
+                        PartitionProtocol.writePut(outs[w], key, entries.get(key));
+                        sent = true;
+                    }
+                    outs[w].flush();
+                }
+
+                if (!sent) break;
+
+                for (int w = 0; w < ins.length; w++) {
+                    for (int i = first; i < Math.min(first + BATCH, byWorker[w].length); i++) {
+                        PartitionProtocol.readAck(ins[w]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Takes a round trip to get the current value and another to put or remove the new one.
+     */
+    @Override
+    public synchronized void merge(CharSequence key, String value,
+                                   BiFunction<? super String, ? super String, ? extends String> remapping) {
+
+        String k = key.toString();
+        String current = get(k);
+        String merged = current == null ? value : remapping.apply(current, value);
+
+        if (merged != null) {
+            put(k, merged);
+            return;
+        }
+
+        try {
+            int worker = map.route(k);
+            removeAll(worker, List.of(k));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Scans every worker CHUNK entries at a time and removes the matching keys, so this
+     * client never holds more than a chunk of entries and its matching keys.
+     */
+    @Override
+    public synchronized long removeIf(Predicate<? super String> filter) {
+
+        long removed = 0;
+
+        try {
+            for (int w = 0; w < map.workers(); w++) {
+
+                // Every chunk after the first starts again at the last key read, which is skipped
+                List<String> matching = new ArrayList<>();
+                String last = null;
+                Map<String, String> chunk;
+                do {
+                    PartitionProtocol.writeScan(outs[w], last == null ? "" : last, null, CHUNK);
+                    outs[w].flush();
+
+                    chunk = PartitionProtocol.readEntries(ins[w]);
+                    for (Map.Entry<String, String> entry : chunk.entrySet()) {
+                        if (entry.getKey().equals(last)) continue;
+                        if (filter.test(entry.getValue())) matching.add(entry.getKey());
+                        last = entry.getKey();
+                    }
+                } while (chunk.size() == CHUNK);
+
+                removeAll(w, matching);
+                removed += matching.size();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Moves range bounds so every worker holds about as many keys, and moves keys
+     * accordingly. New bounds are the keys at evenly spaced ranks of the whole table.
+     * Keys are moved CHUNK at a time, so this client never holds more than that many.
+     * Bounds found not sorted, as when workers were changed by something else than this
+     * table, leave the map as it is.
+     */
+    public synchronized void rebalance() throws IOException {
+
+        long[] sizes = sizes();
+        long total = Arrays.stream(sizes).sum();
+        if (total < map.workers()) return;
+
+        // Rank j * total / workers, asked for at the worker holding it. One request per worker
+        List<List<Long>> ranks = new ArrayList<>();
+        for (int w = 0; w < map.workers(); w++) ranks.add(new ArrayList<>());
+
+        for (int j = 1; j < map.workers(); j++) {
+
+            long rank = j * total / map.workers();
+            int worker = 0;
+            while (rank >= sizes[worker]) rank -= sizes[worker++];
+            ranks.get(worker).add(rank);
+        }
+
+        for (int w = 0; w < map.workers(); w++) {
+            if (ranks.get(w).isEmpty()) continue;
+            PartitionProtocol.writeKeysAt(outs[w], ranks.get(w));
+            outs[w].flush();
+        }
+
+        // Workers hold ascending ranges, so their keys come in rank order
+        List<String> bounds = new ArrayList<>();
+        for (int w = 0; w < map.workers(); w++) {
+            for (int i = 0; i < ranks.get(w).size(); i++) bounds.add(PartitionProtocol.readOptionalString(ins[w]));
+        }
+
+        // Worker 0's bound is the empty key. No other can be, nor be missing
+        for (int i = 0; i < bounds.size(); i++) {
+            String bound = bounds.get(i);
+            String previous = i == 0 ? "" : bounds.get(i - 1);
+            if (bound == null || previous == null || bound.compareTo(previous) <= 0) return;
+        }
+
+        PartitionMap old = map;
+        map = new PartitionMap(bounds);
+
+        // Every worker gives away the keys out of its new range
+        for (int w = 0; w < map.workers(); w++) {
+
+            String oldLower = old.lowerBound(w);
+            String oldUpper = old.upperBound(w);
+            String newLower = map.lowerBound(w);
+            String newUpper = map.upperBound(w);
+
+            if (newLower.compareTo(oldLower) > 0) {
+                move(w, oldLower, newLower);
+            }
+            if (newUpper != null && (oldUpper == null || newUpper.compareTo(oldUpper) < 0)) {
+                move(w, newUpper, oldUpper);
+            }
+        }
+    }
+
+    public synchronized PartitionMap getPartitionMap() {
+
+        return map;
+    }
+
+    /**
+     * Asks every worker process to exit. The table cannot be used afterwards.
+     */
+    public synchronized void shutdownWorkers() throws IOException {
+
+        for (DataOutputStream out : outs) {
+            PartitionProtocol.writeShutdown(out);
+            out.flush();
+        }
+        close();
+    }
+
+    @Override
+    public synchronized void close() {
+
+        try {
+            for (Socket socket : sockets) socket.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+    Moves worker's keys from from, included, to to, excluded, where the current map
+    routes them, i.e. to other workers. A chunk is only removed from worker once the
+    other workers acknowledged it, so a client failing midway leaves keys on both
+    sides rather than on neither. Every chunk is read from the start of what is left
+    of the range.
+     */
+    private void move(int worker, String from, String to) throws IOException {
+
+        Map<String, String> chunk;
+        do {
+            PartitionProtocol.writeScan(outs[worker], from, to, CHUNK);
+            outs[worker].flush();
+
+            chunk = PartitionProtocol.readEntries(ins[worker]);
+            putAll(chunk);
+            removeAll(worker, chunk.keySet());
+        } while (chunk.size() == CHUNK);
+    }
+
+    /*
+    Removes keys from worker, pipelining BATCH requests at a time.
+     */
+    private void removeAll(int worker, Collection<String> keys) throws IOException {
+
+        Iterator<String> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+
+            int sent = 0;
+            for (; sent < BATCH && iterator.hasNext(); sent++) PartitionProtocol.writeRemove(outs[worker], iterator.next());
+            outs[worker].flush();
+
+            for (int i = 0; i < sent; i++) PartitionProtocol.readFound(ins[worker]);
+        }
+    }
+
+    /*
+    Indices of keys, grouped by the worker holding them. Null keys are left out.
+     */
+    private int[][] groupByWorker(List<String> keys) {
+
+        int[] counts = new int[map.workers()];
+        int[] routes = new int[keys.size()];
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = keys.get(i) == null ? -1 : map.route(keys.get(i));
+            if (routes[i] >= 0) counts[routes[i]]++;
+        }
+
+        int[][] byWorker = new int[counts.length][];
+        for (int w = 0; w < counts.length; w++) byWorker[w] = new int[counts[w]];
+
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < routes.length; i++) {
+            if (routes[i] >= 0) byWorker[routes[i]][counts[routes[i]]++] = i;
+        }
+
+        return byWorker;
+    }
+
+    private static Socket connect(int port) throws IOException {
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (true) {
+            try {
+                return new Socket(InetAddress.getLoopbackAddress(), port);
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) throw e;
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+import java.util.HashMap;
+
+/**
+ * CLOCK cache. Entries live in fixed size arrays (slots). A hand sweeps
+ * the slots looking for a victim, giving a second chance to every slot
+ * whose reference bit is set.
+ * @param <Value>
+ */
+public class ClockCache<Value> implements HotKeyCache<Value> {
+
+    private final int capacity;
+    private final HashMap<String, Integer> index; // key -> slot
+    private final String[] keys;
+    private final Object[] values;
+    private final boolean[] referenced;
+    private int hand; // next slot inspected when looking for a victim
+    private int size;
+
+    public ClockCache(int capacity) {
+
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+
+        this.capacity = capacity;
+        this.index = new HashMap<>(capacity * 2);
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.referenced = new boolean[capacity];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Value get(String key) {
+
+        Integer slot = index.get(key);
+        if (slot == null) return null;
+
+        referenced[slot] = true;
+        return (Value) values[slot];
+    }
+
+    @Override
+    public void admit(String key, Value value) {
+
+        if (value == null) return;
+
+        Integer slot = index.get(key);
+        if (slot != null) {
+            values[slot] = value;
+            referenced[slot] = true;
+            return;
+        }
+
+        int free;
+        if (size < capacity) {
+            free = size++;
+        } else {
+
+            /*
+            Moves the hand forward clearing reference bits until a slot
+            not referenced since the last sweep is found.
+             */
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % capacity;
+            }
+
+            free = hand;
+            hand = (hand + 1) % capacity;
+            index.remove(keys[free]);
+        }
+
+        keys[free] = key;
+        values[free] = value;
+        referenced[free] = false;
+        index.put(key, free);
+    }
+
+    @Override
+    public void update(String key, Value value) {
+
+        Integer slot = index.get(key);
+        if (slot == null) return;
+
+        if (value != null) {
+            values[slot] = value;
+            return;
+        }
+
+        /*
+        A null value means the key is no longer in the symbol table.
+        The last occupied slot is moved into the freed one so that
+        slots [0, size) are always occupied.
+         */
+        int last = --size;
+        index.remove(key);
+        if (slot != last) {
+            keys[slot] = keys[last];
+            values[slot] = values[last];
+            referenced[slot] = referenced[last];
+            index.put(keys[slot], slot);
+        }
+        keys[last] = null;
+        values[last] = null;
+        referenced[last] = false;
+        if (hand >= size) hand = 0;
+    }
+
+    @Override
+    public int size() {
+
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+
+        return capacity;
+    }
+}
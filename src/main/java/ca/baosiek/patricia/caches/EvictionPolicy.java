@@ -0,0 +1,42 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+/**
+ * Eviction policies available to CachingSymbolTable.
+ * CLOCK: second chance approximation of LRU with a single reference bit per slot.
+ * TINY_LFU: a small LRU window followed by a main LRU region guarded by a
+ *           frequency sketch, i.e. W-TinyLFU.
+ */
+public enum EvictionPolicy {
+
+    CLOCK,
+    TINY_LFU;
+
+    public <Value> HotKeyCache<Value> createCache(int capacity) {
+
+        switch (this) {
+
+            case CLOCK:
+                return new ClockCache<>(capacity);
+            case TINY_LFU:
+                return new TinyLfuCache<>(capacity);
+            default:
+                throw new IllegalStateException("Unknown eviction policy " + this);
+        }
+    }
+}
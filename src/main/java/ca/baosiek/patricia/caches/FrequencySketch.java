@@ -0,0 +1,92 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+/**
+ * A count-min sketch with 4 rows of small saturating counters used to
+ * estimate how often a key was seen. Once the number of recorded accesses
+ * reaches a sample size every counter is halved, so that old popularity fades.
+ */
+public class FrequencySketch {
+
+    private final int MAX_COUNT = 15; // counters saturate as if they were 4 bits long
+    private final int[] SEEDS = {0x97cb3127, 0x2f6d8ac1, 0x5bd1e995, 0x7feb352d};
+
+    private final byte[][] table;
+    private final int mask; // width - 1, width being a power of two
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(int capacity) {
+
+        int width = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1);
+        this.table = new byte[SEEDS.length][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * Math.max(capacity, 8);
+    }
+
+    public void increment(String key) {
+
+        int hash = spread(key.hashCode());
+        boolean added = false;
+
+        for (int row = 0; row < SEEDS.length; row++) {
+            int i = indexOf(hash, row);
+            if (table[row][i] < MAX_COUNT) {
+                table[row][i]++;
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize) reset();
+    }
+
+    public int frequency(String key) {
+
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+
+        for (int row = 0; row < SEEDS.length; row++) {
+            min = Math.min(min, table[row][indexOf(hash, row)]);
+        }
+
+        return min;
+    }
+
+    private void reset() {
+
+        for (byte[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+
+        int h = (hash ^ SEEDS[row]) * SEEDS[row];
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int spread(int h) {
+
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        return h ^ (h >>> 11);
+    }
+}
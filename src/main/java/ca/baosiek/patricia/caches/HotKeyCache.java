@@ -0,0 +1,48 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+/**
+ * A contract to bounded caches placed in front of a symbol table.
+ * Implementations decide which keys are kept once capacity is reached.
+ * @param <Value> instance of Value. Ex: String for a DNS table
+ */
+
+public interface HotKeyCache<Value> {
+
+    /**
+     * @param key to look up. Implementations record the access for eviction purposes
+     * @return the cached value or null when key is not cached
+     */
+    public Value get(String key);
+
+    /**
+     * Offers a key found in the underlying symbol table to the cache.
+     * Depending on the policy the key may be rejected or another key evicted.
+     */
+    public void admit(String key, Value value);
+
+    /**
+     * Keeps a cached key consistent with a write to the underlying symbol table.
+     * Keys not cached are left untouched.
+     */
+    public void update(String key, Value value);
+
+    public int size();
+
+    public int capacity();
+}
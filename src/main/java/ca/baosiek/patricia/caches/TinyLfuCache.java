@@ -0,0 +1,127 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * W-TinyLFU cache. New keys enter a small LRU window (1% of capacity).
+ * When the window overflows its least recent key becomes a candidate to the
+ * main LRU region, and it is admitted only if the frequency sketch estimates
+ * it more popular than the main region's own victim.
+ * @param <Value>
+ */
+public class TinyLfuCache<Value> implements HotKeyCache<Value> {
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final LinkedHashMap<String, Value> window;
+    private final LinkedHashMap<String, Value> main;
+    private final FrequencySketch sketch;
+
+    public TinyLfuCache(int capacity) {
+
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+
+        // access ordered maps, i.e. iteration starts at the least recently used key
+        this.window = new LinkedHashMap<>(windowCapacity * 2, 0.75f, true);
+        this.main = new LinkedHashMap<>(Math.max(mainCapacity, 1) * 2, 0.75f, true);
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public Value get(String key) {
+
+        sketch.increment(key);
+
+        Value value = window.get(key);
+        if (value != null) return value;
+
+        return main.get(key);
+    }
+
+    @Override
+    public void admit(String key, Value value) {
+
+        if (value == null) return;
+
+        if (window.containsKey(key) || main.containsKey(key)) {
+            update(key, value);
+            return;
+        }
+
+        window.put(key, value);
+        if (window.size() <= windowCapacity) return;
+
+        // Window overflow: its least recently used key is the candidate
+        Map.Entry<String, Value> candidate = removeEldest(window);
+
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        if (mainCapacity == 0) return;
+
+        String victim = main.keySet().iterator().next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+            main.remove(victim);
+            main.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    @Override
+    public void update(String key, Value value) {
+
+        LinkedHashMap<String, Value> region = window.containsKey(key) ? window : main;
+        if (!region.containsKey(key)) return;
+
+        if (value == null) region.remove(key);
+        else region.put(key, value);
+    }
+
+    @Override
+    public int size() {
+
+        return window.size() + main.size();
+    }
+
+    @Override
+    public int capacity() {
+
+        return capacity;
+    }
+
+    private Map.Entry<String, Value> removeEldest(LinkedHashMap<String, Value> region) {
+
+        Iterator<Map.Entry<String, Value>> it = region.entrySet().iterator();
+        Map.Entry<String, Value> eldest = it.next();
+
+        // The entry has to be copied as it is no longer valid once removed
+        Map.Entry<String, Value> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+
+        return copy;
+    }
+}
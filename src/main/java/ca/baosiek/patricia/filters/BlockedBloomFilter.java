@@ -0,0 +1,113 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.filters;
+
+/**
+ * A Bloom filter split in blocks of 512 bits, the size of a cache line. All the bits of
+ * a key are set in one block, picked by the key's hash, so a lookup costs one cache miss
+ * at most, whatever the number of bits per key. The price is a slightly higher false
+ * positive rate than a plain Bloom filter of the same size: about 1% at 10 bits per key.
+ *
+ * Keys can be added at any time but not removed. The false positive rate grows once more
+ * keys than the expected number are added, so the filter should then be rebuilt larger.
+ */
+public class BlockedBloomFilter implements MembershipFilter {
+
+    private final int BLOCK_WORDS = 8; // 8 longs, 512 bits
+
+    private final long[] words;
+    private final int blocks;
+    private final int bitsPerKey;
+    private final int hashes; // bits set per key
+    private final long capacity; // number of keys the filter was sized for
+
+    /**
+     * @param expectedKeys number of keys the filter is sized for
+     * @param bitsPerKey   bits of table per key. Ex: 10 for about 1% false positives
+     */
+    public BlockedBloomFilter(long expectedKeys, int bitsPerKey) {
+
+        if (bitsPerKey < 1) throw new IllegalArgumentException("Bits per key must be at least 1.");
+
+        long bits = Math.max(expectedKeys, 1) * bitsPerKey;
+        long blocks = (bits + BLOCK_WORDS * Long.SIZE - 1) / (BLOCK_WORDS * Long.SIZE);
+        if (blocks * BLOCK_WORDS > Integer.MAX_VALUE) throw new IllegalArgumentException("Filter too large.");
+
+        this.blocks = (int) blocks;
+        this.words = new long[this.blocks * BLOCK_WORDS];
+        this.bitsPerKey = bitsPerKey;
+        this.capacity = Math.max(expectedKeys, 1);
+
+        // k = bits per key * ln 2 minimizes false positives
+        this.hashes = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+    }
+
+    public void add(long hash) {
+
+        int block = blockOf(hash);
+
+        // k bit positions in the block by double hashing, 9 bits each
+        int h = (int) hash;
+        int step = (int) (hash * 0x9e3779b97f4a7c15L >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = h >>> 23;
+            words[block + (bit >>> 6)] |= 1L << bit;
+            h += step;
+        }
+    }
+
+    @Override
+    public boolean mightContain(long hash) {
+
+        int block = blockOf(hash);
+
+        int h = (int) hash;
+        int step = (int) (hash * 0x9e3779b97f4a7c15L >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = h >>> 23;
+            if ((words[block + (bit >>> 6)] & (1L << bit)) == 0) return false;
+            h += step;
+        }
+
+        return true;
+    }
+
+    @Override
+    public long sizeInBytes() {
+
+        return (long) words.length * Long.BYTES;
+    }
+
+    public long capacity() {
+
+        return capacity;
+    }
+
+    public int bitsPerKey() {
+
+        return bitsPerKey;
+    }
+
+    /*
+    First word of the block of hash. The high 32 bits of hash are mapped to
+    [0, blocks) by multiplying, which unlike modulo needs no division.
+     */
+    private int blockOf(long hash) {
+
+        return (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+    }
+}
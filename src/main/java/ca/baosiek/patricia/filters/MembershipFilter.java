@@ -0,0 +1,38 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.filters;
+
+/**
+ * A contract to approximate membership filters placed in front of a symbol table.
+ * Keys are given as 64 bit hashes, computed by StringAnalyser.hashKey, so filters
+ * see keys exactly as the trie behind them does. A filter never answers false for
+ * a key added to it, but may answer true for keys never added (false positives).
+ */
+
+public interface MembershipFilter {
+
+    /**
+     * @param hash of the key to look up
+     * @return false when the key was certainly never added, true when it may have been
+     */
+    public boolean mightContain(long hash);
+
+    /**
+     * @return bytes taken by the filter's table
+     */
+    public long sizeInBytes();
+}
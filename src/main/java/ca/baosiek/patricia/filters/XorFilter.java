@@ -0,0 +1,177 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.filters;
+
+import java.util.Arrays;
+
+/**
+ * An xor filter with 8 bit fingerprints (Graf and Lemire, "Xor Filters: Faster and
+ * Smaller Than Bloom and Cuckoo Filters"). Every key maps to one slot in each of three
+ * segments of a table of bytes, and the table is built so the three bytes xor to the
+ * key's fingerprint. A lookup reads three bytes, and false positives happen 1 time in 256
+ * for about 9.84 bits per key, less memory than a Bloom filter at a quarter of its rate.
+ *
+ * The table is built once from the whole key set and keys cannot be added afterwards,
+ * which suits tables built once and then only read.
+ */
+public class XorFilter implements MembershipFilter {
+
+    private final int MAX_ATTEMPTS = 100; // a new seed is tried when building fails, about 1 time in 10
+
+    private final byte[] fingerprints;
+    private final int segmentLength;
+    private final int keys;
+    private long seed;
+
+    /**
+     * @param hashes hashes of the keys. Duplicates are ignored
+     */
+    public XorFilter(long[] hashes) {
+
+        long[] distinct = distinct(hashes);
+
+        this.keys = distinct.length;
+        this.segmentLength = (int) ((32 + Math.ceil(1.23d * keys)) / 3);
+        this.fingerprints = new byte[3 * segmentLength];
+
+        for (int attempt = 0; ; attempt++) {
+
+            seed = attempt * 0x9e3779b97f4a7c15L + 0x2545f4914f6cdd1dL;
+            if (build(distinct)) return;
+
+            if (attempt == MAX_ATTEMPTS) throw new IllegalStateException("Could not build xor filter.");
+        }
+    }
+
+    @Override
+    public boolean mightContain(long hash) {
+
+        long h = mix(hash + seed);
+        int fingerprint = fingerprint(h);
+
+        return fingerprint == ((fingerprints[slot(h, 0)] ^ fingerprints[slot(h, 1)] ^ fingerprints[slot(h, 2)]) & 0xff);
+    }
+
+    @Override
+    public long sizeInBytes() {
+
+        return fingerprints.length;
+    }
+
+    public int keys() {
+
+        return keys;
+    }
+
+    /*
+    Peeling: a slot only one key maps to can be given to that key, whose other two slots
+    then lose it. Keys are peeled in this order and assigned their slot in reverse, so
+    the slot is set last among the key's three slots, to whatever makes them xor to its
+    fingerprint. Fails when some slots are always shared by two keys or more.
+     */
+    private boolean build(long[] hashes) {
+
+        int[] counts = new int[fingerprints.length];
+        long[] xors = new long[fingerprints.length]; // xor of the hashes mapped to every slot
+
+        for (long hash : hashes) {
+            long h = mix(hash + seed);
+            for (int segment = 0; segment < 3; segment++) {
+                int slot = slot(h, segment);
+                counts[slot]++;
+                xors[slot] ^= h;
+            }
+        }
+
+        int[] queue = new int[fingerprints.length];
+        int queued = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] == 1) queue[queued++] = slot;
+        }
+
+        long[] peeled = new long[hashes.length];
+        int[] peeledSlots = new int[hashes.length];
+        int stack = 0;
+
+        while (queued > 0) {
+
+            int slot = queue[--queued];
+            if (counts[slot] != 1) continue;
+
+            // The only key left in slot
+            long h = xors[slot];
+            peeled[stack] = h;
+            peeledSlots[stack++] = slot;
+
+            for (int segment = 0; segment < 3; segment++) {
+                int other = slot(h, segment);
+                counts[other]--;
+                xors[other] ^= h;
+                if (counts[other] == 1) queue[queued++] = other;
+            }
+        }
+
+        if (stack < hashes.length) return false;
+
+        Arrays.fill(fingerprints, (byte) 0);
+        for (int i = stack - 1; i >= 0; i--) {
+            long h = peeled[i];
+            int slot = peeledSlots[i];
+            int xor = fingerprint(h) ^ fingerprints[slot(h, 0)] ^ fingerprints[slot(h, 1)] ^ fingerprints[slot(h, 2)];
+            fingerprints[slot] ^= (byte) xor;
+        }
+
+        return true;
+    }
+
+    /*
+    Slot of h in segment, from 21 bits rotations of h mapped to [0, segmentLength)
+    by multiplying.
+     */
+    private int slot(long h, int segment) {
+
+        long r = Long.rotateLeft(h, 21 * segment) & 0xffffffffL;
+        return (int) ((r * segmentLength) >>> 32) + segment * segmentLength;
+    }
+
+    private static int fingerprint(long h) {
+
+        return (int) (h ^ (h >>> 32)) & 0xff;
+    }
+
+    private static long mix(long h) {
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static long[] distinct(long[] hashes) {
+
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[n++] = sorted[i];
+        }
+
+        return Arrays.copyOf(sorted, n);
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Lazy expansion leaf of an Adaptive Radix Tree. It holds a whole key, so a
+single key below an inner node needs no further inner nodes.
+ */
+package ca.baosiek.patricia.nodes;
+
+public class ARTLeaf<Value> {
+
+    private final String key; //The key of the leaf
+    private Value value; //The value of the leaf
+
+    public ARTLeaf(String key, Value value) {
+
+        if (key == null) throw new NullPointerException("Key cannot be null.");
+
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getKey() {
+
+        return key;
+    }
+
+    public Value getValue() {
+
+        return value;
+    }
+
+    public void setValue(Value value) {
+
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("{ Key=%s, Value=%s }", key, value);
+    }
+}
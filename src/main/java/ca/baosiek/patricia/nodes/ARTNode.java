@@ -0,0 +1,99 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Inner node of an Adaptive Radix Tree, i.e. a radix tree branching on one byte
+per level whose nodes grow from 4 to 16, 48 and 256 children as needed.
+Children are either inner nodes or leaves (ARTLeaf). A node also holds
+the compressed path (prefix) shared by all keys below it, and the leaf of
+the key ending exactly at this node, if any.
+ */
+package ca.baosiek.patricia.nodes;
+
+import java.util.function.Consumer;
+
+public abstract class ARTNode {
+
+    private byte[] prefix; //Bytes shared by every key below this node, skipped when descending
+    private ARTLeaf<?> terminal; //Leaf of the key ending at this node
+    protected int count; //Number of children
+
+    protected ARTNode(byte[] prefix) {
+
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param b byte to branch on, 0 to 255
+     * @return the child for b, or null
+     */
+    public abstract Object findChild(int b);
+
+    /**
+     * Adds a child for a byte with no child yet.
+     * @return this node, or a bigger copy of it when full
+     */
+    public abstract ARTNode addChild(int b, Object child);
+
+    /**
+     * Replaces the existing child for b.
+     */
+    public abstract void replaceChild(int b, Object child);
+
+    /**
+     * Removes the child for b, if any. Nodes never shrink to a smaller kind.
+     */
+    public abstract void removeChild(int b);
+
+    /**
+     * Calls action with every child.
+     */
+    public abstract void forEachChild(Consumer<Object> action);
+
+    public byte[] getPrefix() {
+
+        return prefix;
+    }
+
+    public void setPrefix(byte[] prefix) {
+
+        this.prefix = prefix;
+    }
+
+    public ARTLeaf<?> getTerminal() {
+
+        return terminal;
+    }
+
+    public void setTerminal(ARTLeaf<?> terminal) {
+
+        this.terminal = terminal;
+    }
+
+    public int getCount() {
+
+        return count;
+    }
+
+    /*
+    Copies the terminal leaf into a bigger node, which got the prefix at construction.
+     */
+    protected <N extends ARTNode> N copyHeaderTo(N node) {
+
+        node.setTerminal(terminal);
+        return node;
+    }
+}
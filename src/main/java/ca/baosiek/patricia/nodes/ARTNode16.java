@@ -0,0 +1,104 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Inner node with up to 16 children kept in sorted arrays, searched by binary search.
+ */
+package ca.baosiek.patricia.nodes;
+
+import java.util.function.Consumer;
+
+public class ARTNode16 extends ARTNode {
+
+    private final byte[] keys = new byte[16];
+    private final Object[] children = new Object[16];
+
+    public ARTNode16(byte[] prefix) {
+
+        super(prefix);
+    }
+
+    @Override
+    public Object findChild(int b) {
+
+        int i = indexOf(b);
+        return i >= 0 ? children[i] : null;
+    }
+
+    @Override
+    public ARTNode addChild(int b, Object child) {
+
+        if (count == keys.length) {
+            ARTNode48 node = copyHeaderTo(new ARTNode48(getPrefix()));
+            for (int i = 0; i < count; i++) node.addChild(keys[i] & 0xFF, children[i]);
+            return node.addChild(b, child);
+        }
+
+        // Keeps keys sorted
+        int i = -(indexOf(b) + 1);
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        System.arraycopy(children, i, children, i + 1, count - i);
+        keys[i] = (byte) b;
+        children[i] = child;
+        count++;
+
+        return this;
+    }
+
+    @Override
+    public void replaceChild(int b, Object child) {
+
+        int i = indexOf(b);
+        if (i >= 0) children[i] = child;
+    }
+
+    /*
+    Same contract as Arrays.binarySearch, on unsigned bytes.
+     */
+    private int indexOf(int b) {
+
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int key = keys[middle] & 0xFF;
+
+            if (key < b) low = middle + 1;
+            else if (key > b) high = middle - 1;
+            else return middle;
+        }
+
+        return -(low + 1);
+    }
+
+    @Override
+    public void removeChild(int b) {
+
+        int i = indexOf(b);
+        if (i < 0) return;
+
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        System.arraycopy(children, i + 1, children, i, count - i - 1);
+        children[--count] = null;
+    }
+
+    @Override
+    public void forEachChild(Consumer<Object> action) {
+
+        for (int i = 0; i < count; i++) action.accept(children[i]);
+    }
+}
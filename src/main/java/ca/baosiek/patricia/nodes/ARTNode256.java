@@ -0,0 +1,68 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Largest inner node, with one child slot per byte value.
+ */
+package ca.baosiek.patricia.nodes;
+
+import java.util.function.Consumer;
+
+public class ARTNode256 extends ARTNode {
+
+    private final Object[] children = new Object[256];
+
+    public ARTNode256(byte[] prefix) {
+
+        super(prefix);
+    }
+
+    @Override
+    public Object findChild(int b) {
+
+        return children[b];
+    }
+
+    @Override
+    public ARTNode addChild(int b, Object child) {
+
+        if (children[b] == null) count++;
+        children[b] = child;
+
+        return this;
+    }
+
+    @Override
+    public void replaceChild(int b, Object child) {
+
+        children[b] = child;
+    }
+
+    @Override
+    public void removeChild(int b) {
+
+        if (children[b] != null) count--;
+        children[b] = null;
+    }
+
+    @Override
+    public void forEachChild(Consumer<Object> action) {
+
+        for (Object child : children) {
+            if (child != null) action.accept(child);
+        }
+    }
+}
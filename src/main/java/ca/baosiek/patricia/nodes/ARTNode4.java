@@ -0,0 +1,96 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Smallest inner node, with up to 4 children kept in sorted arrays.
+ */
+package ca.baosiek.patricia.nodes;
+
+import java.util.function.Consumer;
+
+public class ARTNode4 extends ARTNode {
+
+    private final byte[] keys = new byte[4];
+    private final Object[] children = new Object[4];
+
+    public ARTNode4(byte[] prefix) {
+
+        super(prefix);
+    }
+
+    @Override
+    public Object findChild(int b) {
+
+        for (int i = 0; i < count; i++) {
+            if ((keys[i] & 0xFF) == b) return children[i];
+        }
+
+        return null;
+    }
+
+    @Override
+    public ARTNode addChild(int b, Object child) {
+
+        if (count == keys.length) {
+            ARTNode16 node = copyHeaderTo(new ARTNode16(getPrefix()));
+            for (int i = 0; i < count; i++) node.addChild(keys[i] & 0xFF, children[i]);
+            return node.addChild(b, child);
+        }
+
+        // Keeps keys sorted
+        int i = count;
+        while (i > 0 && (keys[i - 1] & 0xFF) > b) {
+            keys[i] = keys[i - 1];
+            children[i] = children[i - 1];
+            i--;
+        }
+        keys[i] = (byte) b;
+        children[i] = child;
+        count++;
+
+        return this;
+    }
+
+    @Override
+    public void replaceChild(int b, Object child) {
+
+        for (int i = 0; i < count; i++) {
+            if ((keys[i] & 0xFF) == b) {
+                children[i] = child;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void removeChild(int b) {
+
+        for (int i = 0; i < count; i++) {
+            if ((keys[i] & 0xFF) == b) {
+                System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+                System.arraycopy(children, i + 1, children, i, count - i - 1);
+                children[--count] = null;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void forEachChild(Consumer<Object> action) {
+
+        for (int i = 0; i < count; i++) action.accept(children[i]);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Inner node with up to 48 children. A 256 entries index maps every byte
+to its child's slot, so no search is needed.
+ */
+package ca.baosiek.patricia.nodes;
+
+import java.util.function.Consumer;
+
+public class ARTNode48 extends ARTNode {
+
+    private final byte[] index = new byte[256]; //Slot + 1 of each byte's child, 0 when none
+    private final Object[] children = new Object[48];
+
+    public ARTNode48(byte[] prefix) {
+
+        super(prefix);
+    }
+
+    @Override
+    public Object findChild(int b) {
+
+        int slot = index[b] & 0xFF;
+        return slot == 0 ? null : children[slot - 1];
+    }
+
+    @Override
+    public ARTNode addChild(int b, Object child) {
+
+        if (count == children.length) {
+            ARTNode256 node = copyHeaderTo(new ARTNode256(getPrefix()));
+            for (int i = 0; i < index.length; i++) {
+                if (index[i] != 0) node.addChild(i, children[(index[i] & 0xFF) - 1]);
+            }
+            return node.addChild(b, child);
+        }
+
+        // Slots are kept filled in order, see removeChild
+        children[count] = child;
+        index[b] = (byte) (count + 1);
+        count++;
+
+        return this;
+    }
+
+    @Override
+    public void replaceChild(int b, Object child) {
+
+        int slot = index[b] & 0xFF;
+        if (slot != 0) children[slot - 1] = child;
+    }
+
+    @Override
+    public void removeChild(int b) {
+
+        int slot = index[b] & 0xFF;
+        if (slot == 0) return;
+
+        // The last child moves to the freed slot
+        int last = count - 1;
+        if (slot - 1 != last) {
+            children[slot - 1] = children[last];
+            for (int i = 0; i < index.length; i++) {
+                if ((index[i] & 0xFF) == last + 1) {
+                    index[i] = (byte) slot;
+                    break;
+                }
+            }
+        }
+
+        index[b] = 0;
+        children[last] = null;
+        count--;
+    }
+
+    @Override
+    public void forEachChild(Consumer<Object> action) {
+
+        for (int i = 0; i < count; i++) action.accept(children[i]);
+    }
+}
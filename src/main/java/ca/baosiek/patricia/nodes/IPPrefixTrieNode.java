@@ -0,0 +1,92 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+This class is the building block of IPPrefixTrie. Keys are IP prefixes
+(CIDR blocks) of up to 128 bits, kept in two longs instead of a String.
+Nodes holding no value are glue nodes, only there to branch.
+ */
+package ca.baosiek.patricia.nodes;
+
+public class IPPrefixTrieNode<Value> {
+
+    private final long high; //Bits 0 to 63 of the prefix, bits past indexBit are zero
+    private final long low; //Bits 64 to 127 of the prefix, bits past indexBit are zero
+    private final int indexBit; //Prefix length, i.e. the position of the bit this node branches on
+    private Value value; //The value of the prefix. Null for glue nodes
+
+    private IPPrefixTrieNode<Value> left; //Pointer to the child whose bit at indexBit is 0
+    private IPPrefixTrieNode<Value> right; //Pointer to the child whose bit at indexBit is 1
+
+    public IPPrefixTrieNode(long high, long low, int indexBit, Value value) {
+
+        this.high = high;
+        this.low = low;
+        this.indexBit = indexBit;
+        this.value = value;
+    }
+
+    public long getHigh() {
+
+        return high;
+    }
+
+    public long getLow() {
+
+        return low;
+    }
+
+    public int getIndexBit() {
+
+        return indexBit;
+    }
+
+    public Value getValue() {
+
+        return value;
+    }
+
+    public void setValue(Value value) {
+
+        this.value = value;
+    }
+
+    public IPPrefixTrieNode<Value> getLeft() {
+
+        return left;
+    }
+
+    public void setLeft(IPPrefixTrieNode<Value> left) {
+
+        this.left = left;
+    }
+
+    public IPPrefixTrieNode<Value> getRight() {
+
+        return right;
+    }
+
+    public void setRight(IPPrefixTrieNode<Value> right) {
+
+        this.right = right;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("{ Key=%016x%016x/%d, Value=%s }", high, low, indexBit, value);
+    }
+}
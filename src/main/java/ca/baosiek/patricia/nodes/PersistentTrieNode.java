@@ -0,0 +1,100 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/*
+Immutable node of a persistent PATRICIA trie. A leaf holds a key and its value.
+A branch holds no key, only the bit its children are chosen by and the two children.
+Nodes never change once built, so any number of trie versions may share them.
+ */
+package ca.baosiek.patricia.nodes;
+
+public final class PersistentTrieNode<Value> {
+
+    private final String key; //The key of a leaf, null for a branch
+    private final Value value; //The value of a leaf
+    private final int indexBit; //The bit a branch's children are chosen by
+
+    private final PersistentTrieNode<Value> left; //Child whose keys have bit indexBit unset
+    private final PersistentTrieNode<Value> right; //Child whose keys have bit indexBit set
+
+    /**
+     * Builds a leaf
+     * @param key key of the leaf. Cannot be null
+     * @param value value of the leaf
+     */
+    public PersistentTrieNode(String key, Value value) {
+
+        if (key == null) throw new NullPointerException("Key cannot be null.");
+
+        this.key = key;
+        this.value = value;
+        this.indexBit = -1;
+        this.left = null;
+        this.right = null;
+    }
+
+    /**
+     * Builds a branch
+     * @param indexBit the bit children are chosen by
+     * @param left child whose keys have bit indexBit unset
+     * @param right child whose keys have bit indexBit set
+     */
+    public PersistentTrieNode(int indexBit, PersistentTrieNode<Value> left, PersistentTrieNode<Value> right) {
+
+        this.key = null;
+        this.value = null;
+        this.indexBit = indexBit;
+        this.left = left;
+        this.right = right;
+    }
+
+    public boolean isLeaf() {
+
+        return key != null;
+    }
+
+    public String getKey() {
+
+        return key;
+    }
+
+    public Value getValue() {
+
+        return value;
+    }
+
+    public int getIndexBit() {
+
+        return indexBit;
+    }
+
+    public PersistentTrieNode<Value> getLeft() {
+
+        return left;
+    }
+
+    public PersistentTrieNode<Value> getRight() {
+
+        return right;
+    }
+
+    @Override
+    public String toString() {
+
+        if (isLeaf()) return String.format("{ Key=%s, Value=%s }", key, value);
+        return String.format("{ IndexBit=%s }", indexBit);
+    }
+}
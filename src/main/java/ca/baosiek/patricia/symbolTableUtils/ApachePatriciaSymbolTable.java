@@ -2,6 +2,9 @@ package ca.baosiek.patricia.symbolTableUtils;
 
 import org.apache.commons.collections4.trie.PatriciaTrie;
 
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
 /**
  * A wrapper to working with PATRICIA Trie implemented at Apache Commons library
  * as the underlying symbol table.
@@ -36,4 +39,20 @@ public class ApachePatriciaSymbolTable<Value> implements SymbolTable<Value> {
 
         return symbolTable.size();
     }
+
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        symbolTable.merge(key.toString(), value, remapping);
+    }
+
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        long size = symbolTable.size();
+        symbolTable.values().removeIf(filter);
+
+        return size - symbolTable.size();
+    }
 }
@@ -0,0 +1,196 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.caches.EvictionPolicy;
+import ca.baosiek.patricia.caches.HotKeyCache;
+
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A decorator keeping a small bounded cache of hot keys in front of any symbol table.
+ * Reads hitting the cache skip the underlying data structure altogether. Writes go
+ * to the underlying symbol table first and then refresh the cached copy, if any.
+ * Hit ratio is kept for reporting, and average lookup latency too when asked for.
+ *
+ * Not thread safe, lookups included: every get updates the cache's recency or frequency
+ * data. Tables shared by several threads must be used behind a lock readers take too.
+ *
+ * Keys are cached as given, so the decorated table must match keys exactly. A case
+ * insensitive table would see "Foo" and "foo" as one key while the cache keeps stale
+ * copies of both; SymbolTableFactory.createCachingSymbolTable refuses them.
+ * @param <Value>
+ */
+
+public class CachingSymbolTable<Value> implements SymbolTable<Value> {
+
+    // The decorated symbol table
+    private final SymbolTable<Value> symbolTable;
+
+    // The hot key cache in front of it
+    private final EvictionPolicy policy;
+    private HotKeyCache<Value> cache;
+
+    // Counters
+    private final boolean recordLatency; // when false, lookups aren't timed
+    private long hits;
+    private long misses;
+    private long hitNanos;
+    private long missNanos;
+
+    public CachingSymbolTable(SymbolTable<Value> symbolTable, int capacity, EvictionPolicy policy) {
+
+        this(symbolTable, capacity, policy, false);
+    }
+
+    /**
+     * @param recordLatency when true, lookups are timed for getAverageHitNanos and
+     *                      getAverageMissNanos. Reading the clock twice costs about as much as a hit
+     */
+    public CachingSymbolTable(SymbolTable<Value> symbolTable, int capacity, EvictionPolicy policy,
+                              boolean recordLatency) {
+
+        if (symbolTable == null) throw new NullPointerException("Symbol table cannot be null.");
+
+        this.symbolTable = symbolTable;
+        this.policy = policy;
+        this.cache = policy.createCache(capacity);
+        this.recordLatency = recordLatency;
+    }
+
+    @Override
+    public void put(String key, Value value) {
+
+        symbolTable.put(key, value);
+        cache.update(key, value);
+    }
+
+    @Override
+    public Value get(String key) {
+
+        if (key == null) return null;
+
+        long start = recordLatency ? System.nanoTime() : 0L;
+
+        Value value = cache.get(key);
+        if (value != null) {
+            hits++;
+            if (recordLatency) hitNanos += System.nanoTime() - start;
+            return value;
+        }
+
+        value = symbolTable.get(key);
+        cache.admit(key, value);
+
+        misses++;
+        if (recordLatency) missNanos += System.nanoTime() - start;
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    @Override
+    public long size() {
+
+        return symbolTable.size();
+    }
+
+    /**
+     * Merges in the underlying symbol table, then refreshes the cached copy, if any,
+     * with the merged value, or drops it when the key was removed.
+     */
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        // What the key maps to afterwards: value, unless remapping is called
+        @SuppressWarnings("unchecked")
+        Value[] merged = (Value[]) new Object[]{value};
+
+        symbolTable.merge(key, value, (current, given) -> merged[0] = remapping.apply(current, given));
+        cache.update(key.toString(), merged[0]);
+    }
+
+    /**
+     * Removes entries from the underlying symbol table, then starts over with an empty
+     * cache. Cached keys could be dropped one by one, but removeIf doesn't tell which
+     * keys it removed, and some of them may be cached.
+     */
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        long removed = symbolTable.removeIf(filter);
+        if (removed > 0) cache = policy.createCache(cache.capacity());
+
+        return removed;
+    }
+
+    @Override
+    public void close() {
+
+        symbolTable.close();
+    }
+
+    public long getHits() {
+
+        return hits;
+    }
+
+    public long getMisses() {
+
+        return misses;
+    }
+
+    public double getHitRatio() {
+
+        long lookups = hits + misses;
+        return lookups == 0 ? 0d : (double) hits / lookups;
+    }
+
+    public double getAverageHitNanos() {
+
+        return hits == 0 ? 0d : (double) hitNanos / hits;
+    }
+
+    public double getAverageMissNanos() {
+
+        return misses == 0 ? 0d : (double) missNanos / misses;
+    }
+
+    public void resetStatistics() {
+
+        hits = 0;
+        misses = 0;
+        hitNanos = 0;
+        missNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+
+        String cached = String.format("Cache: %,d/%,d keys, hit ratio %.2f%%",
+                cache.size(), cache.capacity(), getHitRatio() * 100d);
+        if (!recordLatency) return cached;
+
+        return cached + String.format(", avg hit %.0fns, avg miss %.0fns", getAverageHitNanos(), getAverageMissNanos());
+    }
+}
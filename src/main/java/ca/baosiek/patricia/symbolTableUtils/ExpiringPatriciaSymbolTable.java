@@ -0,0 +1,222 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.timers.ExpiringValue;
+import ca.baosiek.patricia.timers.TimerWheel;
+import ca.baosiek.patricia.tries.PATRICIATrie;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A wrapper to working with PATRICIA Trie as the underlying symbol table,
+ * where entries may have a time to live (TTL). Every node carries its expiry time.
+ * Expiry is checked lazily on get, while a timer wheel removes expired entries
+ * in small batches piggybacked on puts and gets, so no full scan is ever needed.
+ * Note that size() may still count entries expired but not swept yet.
+ * @param <Value>
+ */
+public class ExpiringPatriciaSymbolTable<Value> implements SymbolTable<Value> {
+
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final int SWEEP_BATCH = 16; // maximum number of entries removed per put or get
+
+    // The underlying data structure of this wrapper
+    PATRICIATrie<ExpiringValue<Value>> symbolTable = new PATRICIATrie<>(new StringAnalyser());
+
+    private final TimerWheel<Value> wheel;
+    private final LongSupplier ticker; // current time in nanoseconds
+
+    public ExpiringPatriciaSymbolTable() {
+
+        this(1, TimeUnit.SECONDS, System::nanoTime);
+    }
+
+    /**
+     * @param tick timer wheel resolution. Entries are swept at most one tick after expiring
+     * @param unit time unit of tick
+     * @param ticker source of time in nanoseconds. Ex: System::nanoTime
+     */
+    public ExpiringPatriciaSymbolTable(long tick, TimeUnit unit, LongSupplier ticker) {
+
+        this.ticker = ticker;
+        this.wheel = new TimerWheel<>(unit.toNanos(tick), ticker.getAsLong());
+    }
+
+    @Override
+    public void put(String key, Value value) {
+
+        put(key, value, NO_EXPIRY, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param ttl time to live. NO_EXPIRY means the entry never expires
+     * @param unit time unit of ttl
+     */
+    public void put(String key, Value value, long ttl, TimeUnit unit) {
+
+        if (key == null) return;
+
+        long now = ticker.getAsLong();
+        sweep(now);
+
+        long expiresAt = ttl == NO_EXPIRY ? NO_EXPIRY : saturatedAdd(now, unit.toNanos(ttl));
+
+        // An existing entry is updated in place, saving one allocation
+        ExpiringValue<Value> entry = symbolTable.get(key);
+        if (entry != null) {
+            wheel.deschedule(entry);
+            entry.setValue(value);
+            entry.setExpiresAt(expiresAt);
+        } else {
+            entry = new ExpiringValue<>(key, value, expiresAt);
+            symbolTable.put(key, entry);
+        }
+
+        if (expiresAt != NO_EXPIRY) wheel.schedule(entry);
+    }
+
+    @Override
+    public Value get(String key) {
+
+        if (key == null) return null;
+
+        long now = ticker.getAsLong();
+        sweep(now);
+
+        ExpiringValue<Value> entry = symbolTable.get(key);
+        if (entry == null) return null;
+
+        // Lazy check, for entries expired but not swept yet
+        if (entry.isExpired(now)) {
+            wheel.deschedule(entry);
+            symbolTable.remove(key);
+            return null;
+        }
+
+        return entry.getValue();
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    /**
+     * @return the number of entries, expired ones not swept yet included
+     */
+    @Override
+    public long size() {
+
+        return symbolTable.size();
+    }
+
+    /**
+     * A merged entry keeps its expiry time. A new key never expires, as with put(key, value).
+     */
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        if (key == null) return;
+
+        String k = key.toString();
+        long now = ticker.getAsLong();
+        sweep(now);
+
+        ExpiringValue<Value> entry = symbolTable.get(k);
+        if (entry != null && entry.isExpired(now)) {
+            wheel.deschedule(entry);
+            symbolTable.remove(k);
+            entry = null;
+        }
+
+        if (entry == null || entry.getValue() == null) {
+            put(k, value);
+            return;
+        }
+
+        Value merged = remapping.apply(entry.getValue(), value);
+        if (merged == null) {
+            wheel.deschedule(entry);
+            symbolTable.remove(k);
+        } else {
+            entry.setValue(merged);
+        }
+    }
+
+    /**
+     * Expired entries are left to the timer wheel, and not counted.
+     */
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        long now = ticker.getAsLong();
+        List<ExpiringValue<Value>> removed = symbolTable.entryStream()
+                .map(Map.Entry::getValue)
+                .filter(entry -> !entry.isExpired(now) && filter.test(entry.getValue()))
+                .collect(Collectors.toList());
+
+        for (ExpiringValue<Value> entry : removed) {
+            wheel.deschedule(entry);
+            symbolTable.remove(entry.getKey());
+        }
+
+        return removed.size();
+    }
+
+    public Value remove(String key) {
+
+        ExpiringValue<Value> entry = symbolTable.remove(key);
+        if (entry == null) return null;
+
+        wheel.deschedule(entry);
+        return entry.isExpired(ticker.getAsLong()) ? null : entry.getValue();
+    }
+
+    /**
+     * Removes every entry expired so far, regardless of the batch size.
+     * @return the number of removed entries
+     */
+    public int cleanUp() {
+
+        return wheel.advance(ticker.getAsLong(), Integer.MAX_VALUE, e -> symbolTable.remove(e.getKey()));
+    }
+
+    private void sweep(long now) {
+
+        wheel.advance(now, SWEEP_BATCH, e -> symbolTable.remove(e.getKey()));
+    }
+
+    private long saturatedAdd(long a, long b) {
+
+        long sum = a + b;
+
+        // Overflow happens only when both operands have the same sign and the sum doesn't
+        if (((a ^ sum) & (b ^ sum)) < 0) return NO_EXPIRY;
+        return sum;
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.filters.BlockedBloomFilter;
+import ca.baosiek.patricia.filters.MembershipFilter;
+import ca.baosiek.patricia.filters.XorFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A decorator keeping a membership filter in front of a PATRICIA trie symbol table.
+ * Keys the filter rules out are misses answered without descending the trie.
+ *
+ * BLOOM: a blocked Bloom filter kept up to date on every put, rebuilt twice as large
+ *        from the trie's keys whenever the table outgrows it.
+ * XOR:   an xor filter built from the trie's keys by freeze, smaller and with fewer
+ *        false positives, but it cannot take new keys. Putting a new key drops it,
+ *        and lookups go to the trie until the next freeze.
+ *
+ * Keys are hashed by the trie's analyser, so case insensitive tables are filtered
+ * case insensitively. Removed keys stay in the filter, costing false positives only.
+ * Lookups may run concurrently, but not along with puts.
+ * @param <Value>
+ */
+public class FilteredSymbolTable<Value> implements SymbolTable<Value> {
+
+    public enum Filter {BLOOM, XOR}
+
+    private final int INITIAL_CAPACITY = 1024; // keys the first Bloom filter is sized for
+
+    // The decorated symbol table
+    private final PatriciaSymbolTable<Value> symbolTable;
+    private final StringAnalyser analyser;
+
+    private final Filter type;
+    private final int bitsPerKey; // of Bloom filters
+    private MembershipFilter filter; // null while no xor filter is built
+
+    // Counters
+    private final LongAdder filtered = new LongAdder(); // misses answered by the filter
+    private final LongAdder falsePositives = new LongAdder(); // misses the filter let through
+
+    /**
+     * @param symbolTable the decorated symbol table
+     * @param type        kind of filter
+     * @param bitsPerKey  size of Bloom filters. Ex: 10 for about 1% false positives. Ignored by XOR
+     */
+    public FilteredSymbolTable(PatriciaSymbolTable<Value> symbolTable, Filter type, int bitsPerKey) {
+
+        if (symbolTable == null) throw new NullPointerException("Symbol table cannot be null.");
+
+        this.symbolTable = symbolTable;
+        this.analyser = symbolTable.symbolTable.getAnalyser();
+        this.type = type;
+        this.bitsPerKey = bitsPerKey;
+
+        if (type == Filter.BLOOM) rebuildBloom(Math.max(INITIAL_CAPACITY, symbolTable.size() * 2));
+        else freeze();
+    }
+
+    @Override
+    public void put(String key, Value value) {
+
+        long size = symbolTable.size();
+        symbolTable.put(key, value);
+
+        if (key != null && symbolTable.size() > size) added(key);
+    }
+
+    @Override
+    public Value get(String key) {
+
+        if (key == null) return null;
+
+        MembershipFilter current = filter;
+        if (current != null && !current.mightContain(analyser.hashKey(key))) {
+            filtered.increment();
+            return null;
+        }
+
+        Value value = symbolTable.get(key);
+        if (value == null && current != null) falsePositives.increment();
+
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    @Override
+    public long size() {
+
+        return symbolTable.size();
+    }
+
+    /**
+     * Keys the filter rules out are answered as misses, the others looked up in one batch.
+     */
+    @Override
+    public List<Value> getAll(List<String> keys) {
+
+        MembershipFilter current = filter;
+        if (current == null) return symbolTable.getAll(keys);
+
+        List<Value> values = new ArrayList<>(keys.size());
+        List<String> passed = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        for (String key : keys) {
+            if (key != null && current.mightContain(analyser.hashKey(key))) {
+                passed.add(key);
+                positions.add(values.size());
+            } else if (key != null) {
+                filtered.increment();
+            }
+            values.add(null);
+        }
+
+        List<Value> found = symbolTable.getAll(passed);
+        for (int i = 0; i < found.size(); i++) {
+            if (found.get(i) == null) falsePositives.increment();
+            values.set(positions.get(i), found.get(i));
+        }
+
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends Value> entries) {
+
+        entries.forEach(this::put);
+    }
+
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        long size = symbolTable.size();
+        symbolTable.merge(key, value, remapping);
+
+        if (symbolTable.size() > size) added(key);
+    }
+
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        return symbolTable.removeIf(filter);
+    }
+
+    /**
+     * Builds the filter from the keys currently in the table: an xor filter for XOR, or a
+     * Bloom filter sized for them for BLOOM, dropping the keys removed since the last one.
+     */
+    public void freeze() {
+
+        if (type == Filter.BLOOM) {
+            rebuildBloom(Math.max(INITIAL_CAPACITY, symbolTable.size()));
+            return;
+        }
+
+        long[] hashes = symbolTable.symbolTable.entryStream()
+                .mapToLong(entry -> analyser.hashKey(entry.getKey()))
+                .toArray();
+        filter = new XorFilter(hashes);
+    }
+
+    /**
+     * @return whether lookups are filtered. Only false for XOR, after a new key was put
+     */
+    public boolean isFiltering() {
+
+        return filter != null;
+    }
+
+    public long getFiltered() {
+
+        return filtered.sum();
+    }
+
+    public long getFalsePositives() {
+
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return share of misses looked up that the filter let through to the trie
+     */
+    public double getFalsePositiveRate() {
+
+        long misses = filtered.sum() + falsePositives.sum();
+        return misses == 0 ? 0d : (double) falsePositives.sum() / misses;
+    }
+
+    /**
+     * @return bytes taken by the filter, zero when there is none
+     */
+    public long getFilterBytes() {
+
+        return filter == null ? 0 : filter.sizeInBytes();
+    }
+
+    public double getBitsPerKey() {
+
+        return size() == 0 ? 0d : getFilterBytes() * 8d / size();
+    }
+
+    public void resetStatistics() {
+
+        filtered.reset();
+        falsePositives.reset();
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("Filter: %s, %,d bytes, %.2f bits per key, %,d misses filtered, false positive rate %.3f%%",
+                filter == null ? "none" : type, getFilterBytes(), getBitsPerKey(), getFiltered(),
+                getFalsePositiveRate() * 100d);
+    }
+
+    /*
+    Keeps the filter consistent with a key new to the table.
+     */
+    private void added(CharSequence key) {
+
+        if (type == Filter.XOR) {
+            filter = null;
+            return;
+        }
+
+        BlockedBloomFilter bloom = (BlockedBloomFilter) filter;
+        if (symbolTable.size() > bloom.capacity()) rebuildBloom(symbolTable.size() * 2);
+        else bloom.add(analyser.hashKey(key));
+    }
+
+    private void rebuildBloom(long capacity) {
+
+        BlockedBloomFilter bloom = new BlockedBloomFilter(capacity, bitsPerKey);
+        symbolTable.symbolTable.entryStream().forEach(entry -> bloom.add(analyser.hashKey(entry.getKey())));
+        filter = bloom;
+    }
+}
@@ -17,6 +17,8 @@
 package ca.baosiek.patricia.symbolTableUtils;
 
 import java.util.Hashtable;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 /**
  * A wrapper to working with HashMap as the underlying symbol table
@@ -51,4 +53,20 @@ public class HashMapSymbolTable<Value> implements SymbolTable<Value> {
 
         return symbolTable.size();
     }
+
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        symbolTable.merge(key.toString(), value, remapping);
+    }
+
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        long size = symbolTable.size();
+        symbolTable.values().removeIf(filter);
+
+        return size - symbolTable.size();
+    }
 }
@@ -0,0 +1,108 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.tries.OffHeapPATRICIATrie;
+import ca.baosiek.patricia.tries.ValueDictionary;
+
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A wrapper to working with an off heap PATRICIA Trie as the underlying symbol table.
+ * The trie stores int codes. Values are dictionary encoded, so only distinct values
+ * stay on the heap. Memory outside the heap is freed by close.
+ * @param <Value>
+ */
+public class OffHeapSymbolTable<Value> implements SymbolTable<Value> {
+
+    // The underlying data structure of this wrapper
+    OffHeapPATRICIATrie symbolTable = new OffHeapPATRICIATrie();
+
+    // Code of every distinct value
+    ValueDictionary<Value> values = new ValueDictionary<>();
+
+    /**
+     * Null values are encoded as any other value, so keys mapped to null are counted.
+     */
+    @Override
+    public void put(String key, Value value) {
+
+        symbolTable.put(key, values.encode(value));
+    }
+
+    @Override
+    public Value get(String key) {
+
+        int code = symbolTable.get(key);
+        return code == OffHeapPATRICIATrie.NO_VALUE ? null : values.decode(code);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    @Override
+    public long size() {
+
+        return symbolTable.size();
+    }
+
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        String k = key.toString();
+        Value current = get(k);
+        Value merged = current == null ? value : remapping.apply(current, value);
+
+        if (merged == null) symbolTable.remove(k);
+        else put(k, merged);
+    }
+
+    /**
+     * Nodes are never unlinked off heap, so the entries kept are copied into a new trie
+     * and the old one is freed. Values stay in the dictionary.
+     */
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        OffHeapPATRICIATrie kept = new OffHeapPATRICIATrie();
+        symbolTable.forEach((key, code) -> {
+            if (!filter.test(values.decode(code))) kept.put(key, code);
+        });
+
+        long removed = symbolTable.size() - kept.size();
+        symbolTable.close();
+        symbolTable = kept;
+
+        return removed;
+    }
+
+    public long offHeapBytes() {
+
+        return symbolTable.offHeapBytes();
+    }
+
+    @Override
+    public void close() {
+
+        symbolTable.close();
+    }
+}
@@ -18,32 +18,81 @@ package ca.baosiek.patricia.symbolTableUtils;
 
 import ca.baosiek.patricia.analysers.StringAnalyser;
 import ca.baosiek.patricia.tries.PATRICIATrie;
+import ca.baosiek.patricia.tries.PATRICIATrieCursor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 /**
  * A wrapper to working with PATRICIA Trie as the underlying symbol table
+ *
+ * With a finger, get and containsKey move the cursor's path as put does, so the table
+ * is not thread safe, lookups included, and is meant for one thread. Without one,
+ * lookups may run concurrently, but not along with writes.
  * @param <Value>
  */
 public class PatriciaSymbolTable<Value> implements SymbolTable<Value> {
 
     // The underlying data structure of this wrapper
-    PATRICIATrie<Value> symbolTable = new PATRICIATrie<>(new StringAnalyser());
+    PATRICIATrie<Value> symbolTable;
+
+    // Cursor single key operations go through, null unless asked for
+    private PATRICIATrieCursor<Value> cursor;
+
+    public PatriciaSymbolTable() {
+
+        this(new StringAnalyser());
+    }
+
+    /**
+     * @param analyser defines how keys are seen. Ex: NormalizingStringAnalyser for case insensitive keys
+     */
+    public PatriciaSymbolTable(StringAnalyser analyser) {
+
+        this(analyser, false);
+    }
+
+    /**
+     * @param analyser          defines how keys are seen
+     * @param dictionaryEncoded when true, equal values share one instance. See PATRICIATrie
+     */
+    public PatriciaSymbolTable(StringAnalyser analyser, boolean dictionaryEncoded) {
+
+        this(analyser, dictionaryEncoded, false);
+    }
+
+    /**
+     * @param analyser          defines how keys are seen
+     * @param dictionaryEncoded when true, equal values share one instance. See PATRICIATrie
+     * @param finger            when true, get, put and containsKey resume from the path of the
+     *                          previous one. Meant for sorted or clustered keys, from one thread.
+     *                          See PATRICIATrieCursor
+     */
+    public PatriciaSymbolTable(StringAnalyser analyser, boolean dictionaryEncoded, boolean finger) {
+
+        symbolTable = new PATRICIATrie<>(analyser, dictionaryEncoded);
+        if (finger) cursor = symbolTable.cursor();
+    }
 
     @Override
     public void put(String key, Value value) {
 
-        symbolTable.put(key, value);
+        if (cursor != null) cursor.put(key, value);
+        else symbolTable.put(key, value);
     }
 
     @Override
     public Value get(String key) {
 
-        return symbolTable.get(key);
+        return cursor != null ? cursor.get(key) : symbolTable.get(key);
     }
 
     @Override
     public boolean containsKey(String key) {
 
-        return symbolTable.containsKey(key);
+        return cursor != null ? cursor.containsKey(key) : symbolTable.containsKey(key);
     }
 
     @Override
@@ -51,4 +100,29 @@ public class PatriciaSymbolTable<Value> implements SymbolTable<Value> {
 
         return symbolTable.size();
     }
+
+    @Override
+    public List<Value> getAll(List<String> keys) {
+
+        return symbolTable.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends Value> entries) {
+
+        symbolTable.putAll(entries);
+    }
+
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        symbolTable.merge(key, value, remapping);
+    }
+
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        return symbolTable.removeIf(filter);
+    }
 }
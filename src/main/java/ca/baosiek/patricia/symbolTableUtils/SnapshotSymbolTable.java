@@ -0,0 +1,148 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.tries.PersistentPATRICIATrie;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A symbol table over a persistent PATRICIA trie, safe for any number of reader and
+ * writer threads without locks. Every change publishes a new version of the trie.
+ * Readers wanting a consistent view across many lookups take a snapshot, which stays
+ * as it was whatever is put afterwards, and a snapshot can be made current again
+ * to roll changes back.
+ * @param <Value>
+ */
+public class SnapshotSymbolTable<Value> implements SymbolTable<Value> {
+
+    // Current version of the underlying data structure
+    private final AtomicReference<PersistentPATRICIATrie<Value>> current;
+
+    public SnapshotSymbolTable() {
+
+        this(new StringAnalyser());
+    }
+
+    public SnapshotSymbolTable(StringAnalyser analyser) {
+
+        current = new AtomicReference<>(new PersistentPATRICIATrie<>(analyser));
+    }
+
+    @Override
+    public void put(String key, Value value) {
+
+        current.updateAndGet(trie -> trie.put(key, value));
+    }
+
+    @Override
+    public Value get(String key) {
+
+        return current.get().get(key);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+        return current.get().containsKey(key);
+    }
+
+    @Override
+    public long size() {
+
+        return current.get().size();
+    }
+
+    /**
+     * Puts every entry in one new version, so readers see either none or all of them.
+     */
+    @Override
+    public void putAll(Map<String, ? extends Value> entries) {
+
+        current.updateAndGet(trie -> {
+
+            for (Map.Entry<String, ? extends Value> entry : entries.entrySet()) {
+                trie = trie.put(entry.getKey(), entry.getValue());
+            }
+
+            return trie;
+        });
+    }
+
+    /**
+     * Retries on the version current at the time whenever another writer got in first,
+     * so no update is lost, and remapping may be called more than once.
+     */
+    @Override
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping) {
+
+        String k = key.toString();
+
+        while (true) {
+
+            PersistentPATRICIATrie<Value> trie = current.get();
+            Value old = trie.get(k);
+            Value merged = old == null ? value : remapping.apply(old, value);
+
+            PersistentPATRICIATrie<Value> next = merged == null ? trie.remove(k) : trie.put(k, merged);
+            if (current.compareAndSet(trie, next)) return;
+        }
+    }
+
+    /**
+     * Removes the entries in one new version. filter may be called more than once per
+     * entry when other writers get in first.
+     */
+    @Override
+    public long removeIf(Predicate<? super Value> filter) {
+
+        long[] removed = new long[1];
+        current.updateAndGet(trie -> {
+            PersistentPATRICIATrie<Value> kept = trie.removeIf(filter);
+            removed[0] = trie.size() - kept.size();
+            return kept;
+        });
+
+        return removed[0];
+    }
+
+    public void remove(String key) {
+
+        current.updateAndGet(trie -> trie.remove(key));
+    }
+
+    /**
+     * @return the current version. It won't see later changes
+     */
+    public PersistentPATRICIATrie<Value> snapshot() {
+
+        return current.get();
+    }
+
+    /**
+     * Makes a version taken with snapshot the current one again.
+     */
+    public void rollback(PersistentPATRICIATrie<Value> snapshot) {
+
+        current.set(snapshot);
+    }
+}
@@ -16,15 +16,66 @@
 
 package ca.baosiek.patricia.symbolTableUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
 /**
  * A contract to using symbol tables created with different underlying data structures
  * @param <Value> instance of Value. Ex: Integer for a word count application
  */
 
-public interface SymbolTable<Value> {
+public interface SymbolTable<Value> extends AutoCloseable {
 
     public void put(String key, Value value);
     public Value get(String key);
     public boolean containsKey(String key);
     public long size();
+
+    /**
+     * Looks up a batch of keys. Underlying data structures able to
+     * resolve several keys at once should override it.
+     * @return the values of keys, in the same order. Missing and null keys get null
+     */
+    public default List<Value> getAll(List<String> keys) {
+
+        List<Value> values = new ArrayList<>(keys.size());
+        keys.forEach(key -> values.add(key == null ? null : get(key)));
+
+        return values;
+    }
+
+    /**
+     * Puts a batch of entries. Null keys are ignored.
+     */
+    public default void putAll(Map<String, ? extends Value> entries) {
+
+        entries.forEach((key, value) -> {
+            if (key != null) put(key, value);
+        });
+    }
+
+    /**
+     * Puts value for a new key, or remapping of the current value and value, as Map.merge
+     * does, removing the key when remapping returns null. Underlying data structures able
+     * to look up a CharSequence only copy a key buffer reused from call to call for new keys.
+     */
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping);
+
+    /**
+     * Removes every entry whose value matches filter.
+     * @return number of entries removed
+     */
+    public long removeIf(Predicate<? super Value> filter);
+
+    /**
+     * Frees what the underlying data structure holds outside the heap, if anything.
+     * The table cannot be used afterwards.
+     */
+    @Override
+    public default void close() {
+    }
 }
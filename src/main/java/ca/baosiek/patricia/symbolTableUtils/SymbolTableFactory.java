@@ -16,12 +16,18 @@
 
 package ca.baosiek.patricia.symbolTableUtils;
 
+import ca.baosiek.patricia.analysers.NormalizingStringAnalyser;
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.caches.EvictionPolicy;
+
 /**
  * A simple factory to instantiate underlying data structure.
  * Case 0: instantiate a wrapper for a Hash Map
  * Case 1: instantiate PATRICIA Trie (developed as support to the story "PATRICIA Trie's Nuts and Bolts"
  *         published on Medium.com
  * Case 2: instantiate Apache Common's implementation of PATRICIA Trie
+ * Case 3: instantiate Adaptive Radix Tree
+ * Case 4: instantiate PATRICIA Trie stored off heap. Should be closed once done with
  */
 public class SymbolTableFactory {
 
@@ -38,9 +44,76 @@ public class SymbolTableFactory {
             case "2":
                 System.out.println("Using [Apache's Commons Collection PATRICIA Trie] as data structure to support symbol table.");
                 return new ApachePatriciaSymbolTable<>();
+            case "3":
+                System.out.println("Using [Adaptive Radix Tree] as data structure to support symbol table.");
+                return new ARTSymbolTable<>();
+            case "4":
+                System.out.println("Using [Off Heap PATRICIA Trie] as data structure to support symbol table.");
+                return new OffHeapSymbolTable<>();
             default:
                 System.out.println("Invalid symbol table type.");
                 return null;
         }
     }
+
+    /**
+     * Same as createSymbolTable, for symbol tables matching keys case insensitively
+     * by themselves, so callers don't need to lower case keys.
+     * Only PATRICIA Trie (case 1) supports it.
+     */
+    public static <S> SymbolTable<S> createCaseInsensitiveSymbolTable(String instanceOfDataStructure) {
+
+        switch (instanceOfDataStructure) {
+
+            case "1":
+                System.out.println("Using case insensitive [PATRICIA Trie] as data structure to support symbol table.");
+                return new PatriciaSymbolTable<>(new NormalizingStringAnalyser());
+            default:
+                System.out.println("Case insensitive keys are only supported by [PATRICIA Trie].");
+                return null;
+        }
+    }
+
+    /**
+     * Puts a bounded cache of hot keys in front of symbolTable. See CachingSymbolTable.
+     * Unlike the tables it decorates, it isn't safe for concurrent lookups.
+     * Case insensitive tables aren't supported, since the cache matches keys exactly.
+     * @param symbolTable table created by one of this factory's methods
+     * @param capacity    number of keys cached
+     * @param policy      which keys are kept once the cache is full
+     */
+    public static <S> SymbolTable<S> createCachingSymbolTable(SymbolTable<S> symbolTable, int capacity,
+                                                               EvictionPolicy policy) {
+
+        if (symbolTable == null) return null;
+
+        if (symbolTable instanceof PatriciaSymbolTable
+                && ((PatriciaSymbolTable<S>) symbolTable).symbolTable.getAnalyser() instanceof NormalizingStringAnalyser) {
+            System.out.println("Hot key cache is only supported by case sensitive symbol tables.");
+            return null;
+        }
+
+        System.out.printf("Caching %,d hot keys with [%s] eviction in front of it.\n", capacity, policy);
+        return new CachingSymbolTable<>(symbolTable, capacity, policy);
+    }
+
+    /**
+     * Same as createSymbolTable, for symbol tables whose lookups resume from where the
+     * previous one went, which pays off when keys come sorted or clustered.
+     * Only PATRICIA Trie (case 1) supports it. Lookups move the finger, so the table
+     * is not thread safe, lookups included, and is meant for one thread.
+     */
+    public static <S> SymbolTable<S> createFingerSymbolTable(String instanceOfDataStructure, boolean caseInsensitive) {
+
+        switch (instanceOfDataStructure) {
+
+            case "1":
+                System.out.println("Using [PATRICIA Trie] with finger search as data structure to support symbol table.");
+                StringAnalyser analyser = caseInsensitive ? new NormalizingStringAnalyser() : new StringAnalyser();
+                return new PatriciaSymbolTable<>(analyser, false, true);
+            default:
+                System.out.println("Finger search is only supported by [PATRICIA Trie].");
+                return null;
+        }
+    }
 }
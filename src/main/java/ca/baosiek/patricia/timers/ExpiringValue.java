@@ -0,0 +1,80 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.timers;
+
+/*
+This class is the value stored at every node of an expiring symbol table.
+Besides the actual value it carries its expiry time and the links
+used to chain it into a bucket of the timer wheel.
+ */
+public class ExpiringValue<Value> {
+
+    private final String key; //The key of the entry, needed to remove it once expired
+    private Value value; //The actual value
+    private long expiresAt; //Expiry time in nanoseconds, as returned by the table's ticker
+
+    ExpiringValue<Value> previous; //Previous entry in the timer wheel bucket
+    ExpiringValue<Value> next; //Next entry in the timer wheel bucket
+
+    public ExpiringValue(String key, Value value, long expiresAt) {
+
+        this.key = key;
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getKey() {
+
+        return key;
+    }
+
+    public Value getValue() {
+
+        return value;
+    }
+
+    public void setValue(Value value) {
+
+        this.value = value;
+    }
+
+    public long getExpiresAt() {
+
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+
+        return expiresAt <= now;
+    }
+
+    public boolean isScheduled() {
+
+        return next != null;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("{ Key=%s, Value=%s, ExpiresAt=%d }", key, value, expiresAt);
+    }
+}
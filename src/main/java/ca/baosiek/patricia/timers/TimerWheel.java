@@ -0,0 +1,209 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.timers;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel. Time is divided into ticks, and each of the
+ * LEVELS wheels has SLOTS buckets. A bucket at level L covers SLOTS^L ticks,
+ * so an entry is placed in the lowest level able to tell its tick apart from
+ * the current one. Whenever the lower wheel completes a turn, the bucket of
+ * the level above is cascaded, i.e. its entries are spread over lower levels.
+ *
+ * Entries are chained in doubly linked lists with a sentinel per bucket,
+ * therefore scheduling and descheduling are O(1) and the wheel itself
+ * takes a fixed amount of memory.
+ */
+public class TimerWheel<Value> {
+
+    private final int BITS = 6; // log2(SLOTS)
+    private final int SLOTS = 1 << BITS;
+    private final int MASK = SLOTS - 1;
+    private final int LEVELS = 5; // 64^5 ticks, i.e. more than 34 years with one second ticks
+
+    private final ExpiringValue<Value>[][] buckets;
+    private final long tickNanos; // length of a tick
+    private long currentTick; // last tick fully processed
+    private long cascadedTick; // last tick whose cascade was done
+    private long count; // number of scheduled entries
+
+    public TimerWheel(long tickNanos, long now) {
+
+        if (tickNanos <= 0) throw new IllegalArgumentException("Tick must be positive.");
+
+        this.tickNanos = tickNanos;
+        this.currentTick = Math.floorDiv(now, tickNanos);
+        this.cascadedTick = currentTick;
+
+        @SuppressWarnings("unchecked")
+        ExpiringValue<Value>[][] buckets = (ExpiringValue<Value>[][]) new ExpiringValue<?>[LEVELS][SLOTS];
+        this.buckets = buckets;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                ExpiringValue<Value> sentinel = new ExpiringValue<>(null, null, Long.MAX_VALUE);
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+                buckets[level][slot] = sentinel;
+            }
+        }
+    }
+
+    public void schedule(ExpiringValue<Value> entry) {
+
+        if (entry.isScheduled()) deschedule(entry);
+
+        /*
+        advance may have run out of budget in the middle of a tick whose cascade is
+        already done. Buckets of that tick were emptied, so placing relative to the
+        previous tick could put the entry in one that is only visited a turn later.
+         */
+        long base = Math.max(currentTick, cascadedTick);
+        place(entry, base, base + 1);
+    }
+
+    public void deschedule(ExpiringValue<Value> entry) {
+
+        if (!entry.isScheduled()) return;
+
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        entry.previous = null;
+        entry.next = null;
+        count--;
+    }
+
+    /**
+     * Moves the wheel forward up to now, handing expired entries to onExpire.
+     * @param now current time in nanoseconds
+     * @param budget maximum number of entries expired by this call
+     * @param onExpire callback receiving every expired entry, already descheduled
+     * @return the number of expired entries
+     */
+    public int advance(long now, int budget, Consumer<ExpiringValue<Value>> onExpire) {
+
+        long nowTick = Math.floorDiv(now, tickNanos);
+        int expired = 0;
+
+        while (currentTick < nowTick) {
+
+            /*
+            Nothing to expire. The wheel jumps straight to now.
+             */
+            if (count == 0) {
+                currentTick = nowTick;
+                cascadedTick = nowTick;
+                break;
+            }
+
+            long tick = currentTick + 1;
+            if (cascadedTick != tick) {
+                cascade(tick);
+                cascadedTick = tick;
+            }
+
+            ExpiringValue<Value> sentinel = buckets[0][(int) (tick & MASK)];
+            while (sentinel.next != sentinel) {
+
+                // Budget is over. The bucket will be resumed at the next call.
+                if (expired == budget) return expired;
+
+                ExpiringValue<Value> entry = sentinel.next;
+                deschedule(entry);
+
+                if (toTick(entry.getExpiresAt()) <= tick) {
+                    onExpire.accept(entry);
+                    expired++;
+                } else {
+                    // Only entries too far in the future for the top level end up here
+                    place(entry, tick, tick + 1);
+                }
+            }
+
+            currentTick = tick;
+        }
+
+        return expired;
+    }
+
+    /**
+     * @return the number of scheduled entries, expired ones not yet handed out by advance included
+     */
+    public long size() {
+
+        return count;
+    }
+
+    /*
+    Entries of the bucket matching tick at every level whose lower wheel has just
+    completed a turn are placed again, now relative to tick.
+     */
+    private void cascade(long tick) {
+
+        for (int level = 1; level < LEVELS; level++) {
+
+            if ((tick & ((1L << (level * BITS)) - 1)) != 0) break;
+
+            ExpiringValue<Value> sentinel = buckets[level][(int) ((tick >> (level * BITS)) & MASK)];
+            if (sentinel.next == sentinel) continue;
+
+            // Detaches the whole chain first, as entries may come back to this very bucket
+            ExpiringValue<Value> entry = sentinel.next;
+            sentinel.previous.next = null;
+            sentinel.next = sentinel;
+            sentinel.previous = sentinel;
+
+            while (entry != null) {
+                ExpiringValue<Value> next = entry.next;
+                entry.previous = null;
+                entry.next = null;
+                count--;
+                place(entry, tick, tick);
+                entry = next;
+            }
+        }
+    }
+
+    /*
+    base is the tick the placement is relative to, while minTick is the earliest
+    tick the entry can be handled at. The level is given by the most significant
+    group of BITS bits in which entry's tick and base differ.
+     */
+    private void place(ExpiringValue<Value> entry, long base, long minTick) {
+
+        long tick = Math.max(toTick(entry.getExpiresAt()), minTick);
+        long diff = tick ^ base;
+
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / BITS;
+        level = Math.min(level, LEVELS - 1);
+
+        ExpiringValue<Value> sentinel = buckets[level][(int) ((tick >> (level * BITS)) & MASK)];
+        entry.previous = sentinel.previous;
+        entry.next = sentinel;
+        sentinel.previous.next = entry;
+        sentinel.previous = entry;
+        count++;
+    }
+
+    /*
+    Rounds up, so that an entry is never handled before its expiry time.
+     */
+    private long toTick(long nanos) {
+
+        return Math.floorDiv(nanos, tickNanos) + (Math.floorMod(nanos, tickNanos) == 0 ? 0 : 1);
+    }
+}
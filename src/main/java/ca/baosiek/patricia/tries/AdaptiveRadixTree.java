@@ -0,0 +1,322 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.nodes.ARTLeaf;
+import ca.baosiek.patricia.nodes.ARTNode;
+import ca.baosiek.patricia.nodes.ARTNode4;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * This class implements an Adaptive Radix Tree, as described in "The Adaptive Radix Tree:
+ * ARTful Indexing for Main-Memory Databases" (Leis, Kemper and Neumann).
+ * Every level branches on one byte of the key, where a key is seen as the sequence of
+ * bytes of its characters, high byte first. Paths with no branching are compressed into
+ * node prefixes and keys alone in a subtree are kept as leaves right away (lazy expansion).
+ */
+public class AdaptiveRadixTree<Value> {
+
+    private Object root; //An inner node (ARTNode), a leaf (ARTLeaf) or null when empty
+    private long size; //number of elements in it.
+
+    public boolean put(String key, Value value) {
+
+        // Key cannot be null
+        if (key == null) return false;
+
+        root = insert(root, key, value, 0);
+        return true;
+    }
+
+    public Value get(String key) {
+
+        if (key == null) return null;
+
+        int lengthInBytes = lengthInBytes(key);
+        Object node = root;
+        int depth = 0;
+
+        while (node instanceof ARTNode) {
+
+            ARTNode inner = (ARTNode) node;
+
+            // Compressed path has to match
+            byte[] prefix = inner.getPrefix();
+            if (depth + prefix.length > lengthInBytes) return null;
+            for (int i = 0; i < prefix.length; i++) {
+                if (prefix[i] != (byte) byteAt(key, depth + i)) return null;
+            }
+            depth += prefix.length;
+
+            // Key ends at this node
+            if (depth == lengthInBytes) return valueOf(inner.getTerminal(), key);
+
+            node = inner.findChild(byteAt(key, depth));
+            depth++;
+        }
+
+        // Leaves may hold any key sharing the path so far
+        return valueOf((ARTLeaf<?>) node, key);
+    }
+
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    /**
+     * Unlinks key's leaf. Inner nodes are left as they are, even when empty,
+     * so lookups through them cost the same as before.
+     * @return the value key had, or null
+     */
+    @SuppressWarnings("unchecked")
+    public Value remove(String key) {
+
+        if (key == null) return null;
+
+        int lengthInBytes = lengthInBytes(key);
+        Object node = root;
+        ARTNode parent = null;
+        int b = 0; //byte node hangs from parent by
+        int depth = 0;
+
+        while (node instanceof ARTNode) {
+
+            ARTNode inner = (ARTNode) node;
+
+            byte[] prefix = inner.getPrefix();
+            if (depth + prefix.length > lengthInBytes) return null;
+            for (int i = 0; i < prefix.length; i++) {
+                if (prefix[i] != (byte) byteAt(key, depth + i)) return null;
+            }
+            depth += prefix.length;
+
+            // Key ends at this node
+            if (depth == lengthInBytes) {
+                ARTLeaf<?> terminal = inner.getTerminal();
+                if (terminal == null) return null;
+
+                inner.setTerminal(null);
+                size--;
+                return ((ARTLeaf<Value>) terminal).getValue();
+            }
+
+            parent = inner;
+            b = byteAt(key, depth);
+            node = inner.findChild(b);
+            depth++;
+        }
+
+        if (node == null || !((ARTLeaf<?>) node).getKey().equals(key)) return null;
+
+        if (parent == null) root = null;
+        else parent.removeChild(b);
+        size--;
+
+        return ((ARTLeaf<Value>) node).getValue();
+    }
+
+    public long size() {
+
+        return size;
+    }
+
+    /**
+     * Calls action with every key and value, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<String, ? super Value> action) {
+
+        Deque<Object> pending = new ArrayDeque<>();
+        if (root != null) pending.push(root);
+
+        while (!pending.isEmpty()) {
+
+            Object node = pending.pop();
+            if (node instanceof ARTLeaf) {
+                ARTLeaf<Value> leaf = (ARTLeaf<Value>) node;
+                action.accept(leaf.getKey(), leaf.getValue());
+                continue;
+            }
+
+            ARTNode inner = (ARTNode) node;
+            if (inner.getTerminal() != null) pending.push(inner.getTerminal());
+            inner.forEachChild(pending::push);
+        }
+    }
+
+    /**
+     * Removes every entry whose value matches filter. Nodes never shrink, so the tree is
+     * built again from the entries kept rather than unlinking leaves one by one.
+     * @return number of entries removed
+     */
+    public long removeIf(Predicate<? super Value> filter) {
+
+        AdaptiveRadixTree<Value> kept = new AdaptiveRadixTree<>();
+        forEach((key, value) -> {
+            if (!filter.test(value)) kept.put(key, value);
+        });
+
+        long removed = size - kept.size;
+        root = kept.root;
+        size = kept.size;
+
+        return removed;
+    }
+
+    /*
+    Inserts key below node, whose first byte is at depth of key.
+    Returns what has to take node's place, i.e. node itself, a new
+    leaf, a bigger copy of node or a new node splitting node's prefix.
+     */
+    @SuppressWarnings("unchecked")
+    private Object insert(Object node, String key, Value value, int depth) {
+
+        if (node == null) {
+            size++;
+            return new ARTLeaf<>(key, value);
+        }
+
+        int lengthInBytes = lengthInBytes(key);
+
+        if (node instanceof ARTLeaf) {
+
+            ARTLeaf<Value> leaf = (ARTLeaf<Value>) node;
+            if (leaf.getKey().equals(key)) {
+                leaf.setValue(value);
+                return leaf;
+            }
+
+            /*
+            Lazy expansion: a second key reached this leaf. Both go below a new node
+            whose prefix is the bytes they share from depth on.
+             */
+            String other = leaf.getKey();
+            int end = Math.min(lengthInBytes, lengthInBytes(other));
+            int p = depth;
+            while (p < end && byteAt(key, p) == byteAt(other, p)) p++;
+
+            ARTNode split = new ARTNode4(bytes(key, depth, p));
+            split = attach(split, leaf, p);
+            split = attach(split, new ARTLeaf<>(key, value), p);
+            size++;
+
+            return split;
+        }
+
+        ARTNode inner = (ARTNode) node;
+        byte[] prefix = inner.getPrefix();
+
+        int mismatch = 0;
+        while (mismatch < prefix.length && depth + mismatch < lengthInBytes
+                && prefix[mismatch] == (byte) byteAt(key, depth + mismatch)) {
+            mismatch++;
+        }
+
+        /*
+        Key leaves the compressed path. A new node takes the matching part
+        of the prefix, with the old node and the new key's leaf below it.
+         */
+        if (mismatch < prefix.length) {
+
+            ARTNode split = new ARTNode4(Arrays.copyOf(prefix, mismatch));
+            inner.setPrefix(Arrays.copyOfRange(prefix, mismatch + 1, prefix.length));
+            split = split.addChild(prefix[mismatch] & 0xFF, inner);
+            split = attach(split, new ARTLeaf<>(key, value), depth + mismatch);
+            size++;
+
+            return split;
+        }
+
+        depth += prefix.length;
+
+        // Key ends at this node
+        if (depth == lengthInBytes) {
+
+            ARTLeaf<Value> terminal = (ARTLeaf<Value>) inner.getTerminal();
+            if (terminal != null) {
+                terminal.setValue(value);
+            } else {
+                inner.setTerminal(new ARTLeaf<>(key, value));
+                size++;
+            }
+
+            return inner;
+        }
+
+        int b = byteAt(key, depth);
+        Object child = inner.findChild(b);
+
+        if (child == null) {
+            size++;
+            return inner.addChild(b, new ARTLeaf<>(key, value));
+        }
+
+        Object newChild = insert(child, key, value, depth + 1);
+        if (newChild != child) inner.replaceChild(b, newChild);
+
+        return inner;
+    }
+
+    /*
+    Hangs leaf below node, either as its terminal, when leaf's key ends
+    at depth, or as the child for leaf's byte at depth.
+     */
+    private ARTNode attach(ARTNode node, ARTLeaf<?> leaf, int depth) {
+
+        if (depth == lengthInBytes(leaf.getKey())) {
+            node.setTerminal(leaf);
+            return node;
+        }
+
+        return node.addChild(byteAt(leaf.getKey(), depth), leaf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Value valueOf(ARTLeaf<?> leaf, String key) {
+
+        if (leaf == null || !leaf.getKey().equals(key)) return null;
+        return ((ARTLeaf<Value>) leaf).getValue();
+    }
+
+    /*
+    Keys are read two bytes per character, high byte first, with no copy of the key.
+     */
+    private int lengthInBytes(String key) {
+
+        return key.length() * 2;
+    }
+
+    private int byteAt(String key, int index) {
+
+        char c = key.charAt(index >>> 1);
+        return (index & 1) == 0 ? c >>> 8 : c & 0xFF;
+    }
+
+    private byte[] bytes(String key, int from, int to) {
+
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) bytes[i - from] = (byte) byteAt(key, i);
+
+        return bytes;
+    }
+}
@@ -0,0 +1,388 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.nodes.IPPrefixTrieNode;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+/**
+ * A path compressed binary trie of IP prefixes for longest prefix match, as used
+ * in routing tables. As in PATRICIATrie, every node has an indexBit, the bit its
+ * children are chosen by, and indexBit always grows going down. Here a node's
+ * indexBit is also the length of its prefix.
+ *
+ * Keys are primitives: an IPv4 address is an int, an IPv6 address two longs
+ * (high and low 64 bits). Lookups allocate nothing and skip the top of the
+ * trie through a table indexed by the address' first 16 bits. Puts keep that
+ * table up to date, so lookups only read and may run concurrently as long as
+ * no put does.
+ */
+public class IPPrefixTrie<Value> {
+
+    public static final int IPV4 = 32;
+    public static final int IPV6 = 128;
+
+    private IPPrefixTrieNode<Value> root; //null while empty
+    private long size; //number of prefixes in it.
+    private final int addressLength; //32 or 128 bits
+
+    /*
+    Level compression of the first STRIDE bits. For each value of an address' first
+    STRIDE bits, strideNodes holds the first node of its path whose index bit is
+    STRIDE or more, and strideValues the value of the longest prefix shorter than
+    STRIDE matching it. Lookups start from there instead of root.
+     */
+    private final int STRIDE = 16;
+    private final IPPrefixTrieNode<Value>[] strideNodes;
+    private final Value[] strideValues;
+
+    /**
+     * @param addressLength IPV4 or IPV6
+     */
+    public IPPrefixTrie(int addressLength) {
+
+        if (addressLength != IPV4 && addressLength != IPV6) {
+            throw new IllegalArgumentException("Address length must be 32 or 128 bits.");
+        }
+
+        this.addressLength = addressLength;
+
+        // An empty trie matches nothing, which is what both arrays start with
+        @SuppressWarnings("unchecked")
+        IPPrefixTrieNode<Value>[] strideNodes = (IPPrefixTrieNode<Value>[]) new IPPrefixTrieNode<?>[1 << STRIDE];
+        @SuppressWarnings("unchecked")
+        Value[] strideValues = (Value[]) new Object[1 << STRIDE];
+        this.strideNodes = strideNodes;
+        this.strideValues = strideValues;
+    }
+
+    public void put(int address, int prefixLength, Value value) {
+
+        checkIPv4();
+        put(ipv4High(address), 0L, prefixLength, value);
+    }
+
+    /**
+     * @param value cannot be null, as nodes without a value are glue nodes
+     */
+    public void put(long high, long low, int prefixLength, Value value) {
+
+        if (value == null) throw new NullPointerException("Value cannot be null.");
+
+        if (prefixLength < 0 || prefixLength > addressLength) {
+            throw new IllegalArgumentException("Invalid prefix length " + prefixLength);
+        }
+
+        // Bits past the prefix length are not part of the key
+        high &= highMask(prefixLength);
+        low &= lowMask(prefixLength);
+
+        IPPrefixTrieNode<Value> parent = null;
+        IPPrefixTrieNode<Value> node = root;
+
+        while (node != null) {
+
+            int common = Math.min(Math.min(prefixLength, node.getIndexBit()),
+                    commonPrefixLength(high, low, node.getHigh(), node.getLow()));
+
+            /*
+            The new prefix leaves node's path before node's index bit. If the new
+            prefix ends there it becomes node's parent, otherwise a glue node
+            at the first different bit becomes parent of both.
+             */
+            if (common < node.getIndexBit()) {
+
+                IPPrefixTrieNode<Value> entry = new IPPrefixTrieNode<>(high, low, prefixLength, value);
+                IPPrefixTrieNode<Value> top = entry;
+
+                if (common == prefixLength) {
+                    setChild(entry, node);
+                } else {
+                    top = new IPPrefixTrieNode<>(high & highMask(common), low & lowMask(common), common, null);
+                    setChild(top, node);
+                    setChild(top, entry);
+                }
+
+                replaceChild(parent, node, top);
+                size++;
+                updateStride(top);
+                return;
+            }
+
+            // Node's prefix is a prefix of the new one
+            if (node.getIndexBit() == prefixLength) {
+
+                if (node.getValue() == null) size++;
+                node.setValue(value);
+                updateStride(node);
+                return;
+            }
+
+            parent = node;
+            node = isBitSet(high, low, node.getIndexBit()) ? node.getRight() : node.getLeft();
+        }
+
+        IPPrefixTrieNode<Value> entry = new IPPrefixTrieNode<>(high, low, prefixLength, value);
+        if (parent == null) root = entry;
+        else setChild(parent, entry);
+        size++;
+        updateStride(entry);
+    }
+
+    /**
+     * Parses and puts a prefix in CIDR notation. Ex: "10.0.0.0/8" or "2001:db8::/32"
+     * Addresses must be literals. Host names are rejected, never looked up.
+     */
+    public void put(String cidr, Value value) {
+
+        int slash = cidr.indexOf('/');
+        String literal = slash < 0 ? cidr : cidr.substring(0, slash);
+        int prefixLength = slash < 0 ? addressLength : Integer.parseInt(cidr.substring(slash + 1));
+
+        if (addressLength == IPV4) {
+            put(parseIPv4(literal, cidr), prefixLength, value);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(parseIPv6(literal, cidr));
+            put(buffer.getLong(), buffer.getLong(), prefixLength, value);
+        }
+    }
+
+    /**
+     * @return value of the exact prefix, or null
+     */
+    public Value get(int address, int prefixLength) {
+
+        checkIPv4();
+        return get(ipv4High(address), 0L, prefixLength);
+    }
+
+    public Value get(long high, long low, int prefixLength) {
+
+        if (prefixLength < 0 || prefixLength > addressLength) {
+            throw new IllegalArgumentException("Invalid prefix length " + prefixLength);
+        }
+
+        high &= highMask(prefixLength);
+        low &= lowMask(prefixLength);
+
+        IPPrefixTrieNode<Value> node = root;
+        while (node != null && node.getIndexBit() < prefixLength) {
+            node = isBitSet(high, low, node.getIndexBit()) ? node.getRight() : node.getLeft();
+        }
+
+        if (node == null || node.getIndexBit() != prefixLength) return null;
+        if (node.getHigh() != high || node.getLow() != low) return null;
+
+        return node.getValue();
+    }
+
+    /**
+     * @return value of the longest prefix containing address, or null
+     */
+    public Value longestPrefixMatch(int address) {
+
+        checkIPv4();
+        return longestPrefixMatch(ipv4High(address), 0L);
+    }
+
+    public Value longestPrefixMatch(long high, long low) {
+
+        int block = (int) (high >>> (Long.SIZE - STRIDE));
+        Value best = strideValues[block];
+        IPPrefixTrieNode<Value> node = strideNodes[block];
+
+        /*
+        Index bits only skip the bits compressed along the path, so every node
+        has to be checked against the address. The first one not matching ends
+        the search, as nothing below it can match either.
+         */
+        while (node != null) {
+
+            int indexBit = node.getIndexBit();
+            if ((high & highMask(indexBit)) != node.getHigh() || (low & lowMask(indexBit)) != node.getLow()) break;
+
+            if (node.getValue() != null) best = node.getValue();
+            if (indexBit == addressLength) break;
+
+            node = isBitSet(high, low, indexBit) ? node.getRight() : node.getLeft();
+        }
+
+        return best;
+    }
+
+    public boolean containsKey(int address, int prefixLength) {
+
+        return get(address, prefixLength) != null;
+    }
+
+    public long size() {
+
+        return size;
+    }
+
+    public int getAddressLength() {
+
+        return addressLength;
+    }
+
+    /*
+    Keeps the stride arrays up to date after node was put or linked. Only blocks
+    within node's prefix may have changed, i.e. its own block for a node at or
+    past STRIDE, and 2^(STRIDE - indexBit) blocks for a shorter one. Those are
+    walked again.
+     */
+    private void updateStride(IPPrefixTrieNode<Value> node) {
+
+        int indexBit = Math.min(node.getIndexBit(), STRIDE);
+        int first = (int) (node.getHigh() >>> (Long.SIZE - STRIDE));
+        int blocks = 1 << (STRIDE - indexBit);
+
+        for (int block = first; block < first + blocks; block++) walkStride(block);
+    }
+
+    /*
+    Same walk as longestPrefixMatch, from root down to the first node at or past STRIDE.
+     */
+    private void walkStride(int block) {
+
+        long high = (long) block << (Long.SIZE - STRIDE);
+        Value best = null;
+        IPPrefixTrieNode<Value> node = root;
+
+        while (node != null && node.getIndexBit() < STRIDE) {
+
+            if ((high & highMask(node.getIndexBit())) != node.getHigh()) {
+                node = null;
+                break;
+            }
+
+            if (node.getValue() != null) best = node.getValue();
+            node = isBitSet(high, 0L, node.getIndexBit()) ? node.getRight() : node.getLeft();
+        }
+
+        strideNodes[block] = node;
+        strideValues[block] = best;
+    }
+
+    /*
+    Dotted decimal, four parts of one to three digits each.
+     */
+    private int parseIPv4(String literal, String cidr) {
+
+        String[] parts = literal.split("\\.", -1);
+        if (parts.length != 4) throw notAPrefix(cidr);
+
+        int address = 0;
+        for (String part : parts) {
+
+            if (part.isEmpty() || part.length() > 3 || !part.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                throw notAPrefix(cidr);
+            }
+
+            int octet = Integer.parseInt(part);
+            if (octet > 255) throw notAPrefix(cidr);
+            address = address << 8 | octet;
+        }
+
+        return address;
+    }
+
+    /*
+    InetAddress parses a name with a colon as an IPv6 literal, and never looks it up.
+    Names with anything else than hex digits, colons and dots, as zones, are refused
+    beforehand. So are IPv4 mapped addresses, which InetAddress turns into IPv4 ones.
+     */
+    private byte[] parseIPv6(String literal, String cidr) {
+
+        boolean hexColonsAndDots = literal.chars().allMatch(c -> c == ':' || c == '.'
+                || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'));
+        if (literal.indexOf(':') < 0 || !hexColonsAndDots) throw notAPrefix(cidr);
+
+        try {
+            byte[] bytes = InetAddress.getByName(literal).getAddress();
+            if (bytes.length * Byte.SIZE == IPV6) return bytes;
+        } catch (UnknownHostException e) {
+            // Not a valid literal
+        }
+
+        throw notAPrefix(cidr);
+    }
+
+    private IllegalArgumentException notAPrefix(String cidr) {
+
+        return new IllegalArgumentException("Not an IPv" + (addressLength == IPV4 ? 4 : 6) + " prefix: " + cidr);
+    }
+
+    private void checkIPv4() {
+
+        if (addressLength != IPV4) throw new IllegalStateException("Not an IPv4 trie.");
+    }
+
+    /*
+    IPv4 addresses take the 32 most significant bits.
+     */
+    private long ipv4High(int address) {
+
+        return (address & 0xFFFFFFFFL) << 32;
+    }
+
+    /*
+    Hangs child below parent, on the side given by child's bit at parent's index bit.
+     */
+    private void setChild(IPPrefixTrieNode<Value> parent, IPPrefixTrieNode<Value> child) {
+
+        if (isBitSet(child.getHigh(), child.getLow(), parent.getIndexBit())) parent.setRight(child);
+        else parent.setLeft(child);
+    }
+
+    private void replaceChild(IPPrefixTrieNode<Value> parent, IPPrefixTrieNode<Value> child,
+                              IPPrefixTrieNode<Value> replacement) {
+
+        if (parent == null) root = replacement;
+        else if (parent.getLeft() == child) parent.setLeft(replacement);
+        else parent.setRight(replacement);
+    }
+
+    private static boolean isBitSet(long high, long low, int bitIndex) {
+
+        if (bitIndex < Long.SIZE) return (high << bitIndex) < 0;
+        return (low << (bitIndex - Long.SIZE)) < 0;
+    }
+
+    private static int commonPrefixLength(long high1, long low1, long high2, long low2) {
+
+        if (high1 != high2) return Long.numberOfLeadingZeros(high1 ^ high2);
+        return Long.SIZE + Long.numberOfLeadingZeros(low1 ^ low2);
+    }
+
+    // Mask keeping the bits of the high long within the first length bits
+    private static long highMask(int length) {
+
+        if (length >= Long.SIZE) return -1L;
+        return length == 0 ? 0L : -1L << (Long.SIZE - length);
+    }
+
+    // Mask keeping the bits of the low long within the first length bits
+    private static long lowMask(int length) {
+
+        if (length <= Long.SIZE) return 0L;
+        return length >= 2 * Long.SIZE ? -1L : -1L << (2 * Long.SIZE - length);
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Append only memory outside the Java heap, made of direct ByteBuffer chunks and
+ * addressed by long offsets. Records are allocated one after the other and never
+ * straddle two chunks, so reading one is a single buffer access. The heap only
+ * holds one ByteBuffer object per chunk, whatever the amount of data.
+ */
+final class OffHeapBuffer {
+
+    static final int CHUNK_BITS = 22;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS; //4MB
+    private static final long MASK = CHUNK_SIZE - 1;
+
+    private ByteBuffer[] chunks = new ByteBuffer[8];
+    private int count; //chunks allocated
+    private long next; //offset of the next record
+
+    /**
+     * @param bytes size of the record, up to CHUNK_SIZE
+     * @return offset of the record
+     */
+    long allocate(int bytes) {
+
+        if (bytes > CHUNK_SIZE) throw new IllegalArgumentException("Record larger than " + CHUNK_SIZE + " bytes.");
+        if (chunks == null) throw new IllegalStateException("Buffer was released.");
+
+        // Records that don't fit the current chunk go to the next one
+        if ((next & MASK) + bytes > CHUNK_SIZE) next = ((next >>> CHUNK_BITS) + 1) << CHUNK_BITS;
+
+        if ((int) (next >>> CHUNK_BITS) == count) {
+            if (count == chunks.length) chunks = Arrays.copyOf(chunks, count * 2);
+            chunks[count++] = ByteBuffer.allocateDirect(CHUNK_SIZE).order(ByteOrder.nativeOrder());
+        }
+
+        long offset = next;
+        next += bytes;
+
+        return offset;
+    }
+
+    int getInt(long offset) {
+
+        return chunks[(int) (offset >>> CHUNK_BITS)].getInt((int) (offset & MASK));
+    }
+
+    void putInt(long offset, int value) {
+
+        chunks[(int) (offset >>> CHUNK_BITS)].putInt((int) (offset & MASK), value);
+    }
+
+    long getLong(long offset) {
+
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & MASK));
+    }
+
+    void putLong(long offset, long value) {
+
+        chunks[(int) (offset >>> CHUNK_BITS)].putLong((int) (offset & MASK), value);
+    }
+
+    char getChar(long offset) {
+
+        return chunks[(int) (offset >>> CHUNK_BITS)].getChar((int) (offset & MASK));
+    }
+
+    void putChar(long offset, char value) {
+
+        chunks[(int) (offset >>> CHUNK_BITS)].putChar((int) (offset & MASK), value);
+    }
+
+    /**
+     * @return bytes reserved outside the heap
+     */
+    long capacity() {
+
+        return (long) count * CHUNK_SIZE;
+    }
+
+    /*
+    Frees every chunk right away where the JDK lets us, through the same cleaner
+    the garbage collector would run. Otherwise chunks are freed once collected.
+     */
+    void release() {
+
+        if (chunks == null) return;
+
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method invokeCleaner = unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+
+            for (int i = 0; i < count; i++) invokeCleaner.invoke(unsafe, chunks[i]);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+
+        chunks = null;
+        count = 0;
+    }
+}
@@ -0,0 +1,339 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The same PATRICIA trie as PATRICIATrie, upward links included, with nodes, keys and
+ * values stored outside the Java heap. A node is a fixed size record and refers to
+ * other nodes by index, and to its key by offset, so the heap holds nothing but a
+ * handful of buffers, whatever the number of keys, and the garbage collector has
+ * nothing to trace. Nothing in the layout depends on where its memory comes from,
+ * so it could be backed by a mapped file as well.
+ *
+ * Values are ints. Keys are compared char by char, as StringAnalyser does.
+ * Memory is freed by close, after which the trie cannot be used.
+ */
+public class OffHeapPATRICIATrie implements AutoCloseable {
+
+    public static final int NO_VALUE = -1; //what get returns for missing keys
+
+    /*
+    Node layout
+     */
+    private static final int KEY_OFFSET = 0; //long, offset of the key's chars
+    private static final int KEY_LENGTH = 8; //int, key length in chars
+    private static final int INDEX_BIT = 12; //int
+    private static final int LEFT = 16; //int, index of left child
+    private static final int RIGHT = 20; //int, index of right child
+    private static final int VALUE = 24; //int
+    private static final int NODE_SIZE = 32; //4 bytes left unused for alignment
+
+    private static final int ROOT = 0; //index of root
+    private static final int EQUAL = -2; //returned by firstDifferentBitIndex for equal keys
+
+    private final OffHeapBuffer nodes = new OffHeapBuffer();
+    private final OffHeapBuffer keys = new OffHeapBuffer();
+    private long size; //number of elements in it.
+    private int nodeCount; //nodes allocated, root included, numbered from 0 on
+    private boolean closed;
+
+    public OffHeapPATRICIATrie() {
+
+        // As in PATRICIATrie, root holds the empty key and its left child is itself
+        int root = newNode("", NO_VALUE, 0);
+        setLeft(root, root);
+        setRight(root, NO_VALUE);
+    }
+
+    /**
+     * @param value cannot be NO_VALUE
+     */
+    public boolean put(String key, int value) {
+
+        checkOpen();
+
+        // Key cannot be null
+        if (key == null) return false;
+        if (value == NO_VALUE) throw new IllegalArgumentException("Value cannot be " + NO_VALUE);
+
+        int lengthInBits = key.length() * Character.SIZE;
+
+        // The only place an empty string can be inserted is at the root.
+        if (key.isEmpty()) {
+
+            if (getValue(ROOT) == NO_VALUE) size++;
+            setValue(ROOT, value);
+            return true;
+        }
+
+        int found = getNearestKey(key, lengthInBits);
+
+        if (equalKeys(found, key)) {
+
+            // Removed keys keep their node
+            if (getValue(found) == NO_VALUE) size++;
+            setValue(found, value);
+            return true;
+        }
+
+        int firstDifferentBit = firstDifferentBitIndex(found, key);
+        if (firstDifferentBit == EQUAL) {
+            throw new IllegalArgumentException("Key has the same bits as a key already in the trie.");
+        }
+
+        int parent = ROOT;
+        int child = getLeft(ROOT);
+
+        while (getIndexBit(child) > getIndexBit(parent) && getIndexBit(child) < firstDifferentBit) {
+
+            boolean isBitSet = isBitSet(key, getIndexBit(child), lengthInBits);
+            parent = child;
+            child = isBitSet ? getRight(child) : getLeft(child);
+        }
+
+        int entry = newNode(key, value, firstDifferentBit);
+        if (!isBitSet(key, firstDifferentBit, lengthInBits)) {
+            setLeft(entry, entry);
+            setRight(entry, child);
+        } else {
+            setRight(entry, entry);
+            setLeft(entry, child);
+        }
+
+        if (!isBitSet(key, getIndexBit(parent), lengthInBits) || parent == ROOT) {
+            setLeft(parent, entry);
+        } else {
+            setRight(parent, entry);
+        }
+
+        size++;
+        return true;
+    }
+
+    /**
+     * @return the value of key or NO_VALUE
+     */
+    public int get(String key) {
+
+        checkOpen();
+
+        if (key == null) return NO_VALUE;
+
+        int found = getNearestKey(key, key.length() * Character.SIZE);
+        return equalKeys(found, key) ? getValue(found) : NO_VALUE;
+    }
+
+    public boolean containsKey(String key) {
+
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Removes key's value. Its node stays linked, as other keys may be found
+     * through it, and is reused if key is put again. Memory is only given
+     * back by copying the trie.
+     * @return the value key had, or NO_VALUE
+     */
+    public int remove(String key) {
+
+        checkOpen();
+
+        if (key == null) return NO_VALUE;
+
+        int found = getNearestKey(key, key.length() * Character.SIZE);
+        if (!equalKeys(found, key)) return NO_VALUE;
+
+        int value = getValue(found);
+        if (value != NO_VALUE) {
+            setValue(found, NO_VALUE);
+            size--;
+        }
+
+        return value;
+    }
+
+    public long size() {
+
+        return size;
+    }
+
+    /**
+     * Calls action with every key and value, in the order keys were first put.
+     */
+    public void forEach(ObjIntConsumer<String> action) {
+
+        checkOpen();
+
+        for (int node = ROOT; node < nodeCount; node++) {
+            int value = getValue(node);
+            if (value != NO_VALUE) action.accept(getKey(node), value);
+        }
+    }
+
+    /**
+     * @return bytes taken outside the heap, by nodes and keys
+     */
+    public long offHeapBytes() {
+
+        return nodes.capacity() + keys.capacity();
+    }
+
+    @Override
+    public void close() {
+
+        if (closed) return;
+
+        closed = true;
+        nodes.release();
+        keys.release();
+    }
+
+    private int getNearestKey(String key, int lengthInBits) {
+
+        if (equalKeys(ROOT, key)) return ROOT;
+
+        int parent = ROOT;
+        int current = getLeft(ROOT);
+
+        while (getIndexBit(current) > getIndexBit(parent)) {
+
+            boolean isBitSet = isBitSet(key, getIndexBit(current), lengthInBits);
+            parent = current;
+            current = !isBitSet || parent == ROOT ? getLeft(current) : getRight(current);
+        }
+
+        return current;
+    }
+
+    private int newNode(String key, int value, int indexBit) {
+
+        long keyOffset = 0;
+        if (!key.isEmpty()) {
+            if ((long) key.length() * Character.BYTES > OffHeapBuffer.CHUNK_SIZE) {
+                throw new IllegalArgumentException("Key longer than " + OffHeapBuffer.CHUNK_SIZE / 2 + " chars.");
+            }
+
+            keyOffset = keys.allocate(key.length() * Character.BYTES);
+            for (int i = 0; i < key.length(); i++) keys.putChar(keyOffset + (long) i * Character.BYTES, key.charAt(i));
+        }
+
+        long node = nodes.allocate(NODE_SIZE);
+        nodes.putLong(node + KEY_OFFSET, keyOffset);
+        nodes.putInt(node + KEY_LENGTH, key.length());
+        nodes.putInt(node + INDEX_BIT, indexBit);
+        nodes.putInt(node + VALUE, value);
+        nodeCount++;
+
+        return (int) (node / NODE_SIZE);
+    }
+
+    private String getKey(int node) {
+
+        int length = nodes.getInt(address(node) + KEY_LENGTH);
+        long keyOffset = nodes.getLong(address(node) + KEY_OFFSET);
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) chars[i] = keys.getChar(keyOffset + (long) i * Character.BYTES);
+
+        return new String(chars);
+    }
+
+    private boolean equalKeys(int node, String key) {
+
+        int length = nodes.getInt(address(node) + KEY_LENGTH);
+        if (length != key.length()) return false;
+
+        long keyOffset = nodes.getLong(address(node) + KEY_OFFSET);
+        for (int i = 0; i < length; i++) {
+            if (keys.getChar(keyOffset + (long) i * Character.BYTES) != key.charAt(i)) return false;
+        }
+
+        return true;
+    }
+
+    /*
+    Same as StringAnalyser.firstDifferentBitIndex, between node's key and key.
+    Chars past the end of a key are read as 0x0000.
+     */
+    private int firstDifferentBitIndex(int node, String key) {
+
+        int length = nodes.getInt(address(node) + KEY_LENGTH);
+        long keyOffset = nodes.getLong(address(node) + KEY_OFFSET);
+
+        for (int i = 0; ; i++) {
+
+            int c1 = i < length ? keys.getChar(keyOffset + (long) i * Character.BYTES) : 0;
+            int c2 = i < key.length() ? key.charAt(i) : 0;
+
+            if (c1 != c2) return i * Character.SIZE + Integer.numberOfLeadingZeros(c1 ^ c2) - Character.SIZE;
+            if (c1 == 0) return EQUAL;
+        }
+    }
+
+    private static boolean isBitSet(String key, int bitIndex, int lengthInBits) {
+
+        if (bitIndex >= lengthInBits) return false;
+        return (key.charAt(bitIndex / Character.SIZE) & (0x8000 >>> (bitIndex % Character.SIZE))) != 0;
+    }
+
+    private void checkOpen() {
+
+        if (closed) throw new IllegalStateException("Trie was closed.");
+    }
+
+    private long address(int node) {
+
+        return (long) node * NODE_SIZE;
+    }
+
+    private int getIndexBit(int node) {
+
+        return nodes.getInt(address(node) + INDEX_BIT);
+    }
+
+    private int getLeft(int node) {
+
+        return nodes.getInt(address(node) + LEFT);
+    }
+
+    private void setLeft(int node, int left) {
+
+        nodes.putInt(address(node) + LEFT, left);
+    }
+
+    private int getRight(int node) {
+
+        return nodes.getInt(address(node) + RIGHT);
+    }
+
+    private void setRight(int node, int right) {
+
+        nodes.putInt(address(node) + RIGHT, right);
+    }
+
+    private int getValue(int node) {
+
+        return nodes.getInt(address(node) + VALUE);
+    }
+
+    private void setValue(int node, int value) {
+
+        nodes.putInt(address(node) + VALUE, value);
+    }
+}
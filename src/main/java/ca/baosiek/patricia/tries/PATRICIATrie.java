@@ -19,6 +19,16 @@ package ca.baosiek.patricia.tries;
 import ca.baosiek.patricia.analysers.StringAnalyser;
 import ca.baosiek.patricia.nodes.PATRICIATrieNode;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * This class follows the implementation of the two pseudocodes
  * found in the story PATRICIA Trie's Nuts and Bolts"
@@ -28,11 +38,26 @@ public class PATRICIATrie<Value> {
 
     private PATRICIATrieNode<Value> root; //the root of this data structure
     private long size; //number of elements in it.
+    private long modCount; //number of nodes linked or unlinked, so cursors know their path is stale
     private final StringAnalyser analyser; //helper class to analyse strings
+    private final ValueDictionary<Value> dictionary; //interns values, null unless asked for
+
+    private final int INTERLEAVE = 4; //number of lookups walked in lockstep by getAll and putAll
 
     public PATRICIATrie(StringAnalyser analyzer) {
 
+        this(analyzer, false);
+    }
+
+    /**
+     * @param dictionaryEncoded when true, values are interned: all keys mapped to equal
+     *                          values share one instance of it. Meant for value sets much
+     *                          smaller than key sets. Ex: ip addresses of a DNS table
+     */
+    public PATRICIATrie(StringAnalyser analyzer, boolean dictionaryEncoded) {
+
         this.analyser = analyzer;
+        this.dictionary = dictionaryEncoded ? new ValueDictionary<>() : null;
         
         /*
          Following PATRICIA algorithm, i.e. a child node's different bit has to be higher than
@@ -49,6 +74,8 @@ public class PATRICIATrie<Value> {
         // Key cannot be null
         if (key == null) return false;
 
+        value = intern(value);
+
         //Key length in bits
         int lengthInBits = analyser.lengthInBits(key);
 
@@ -65,10 +92,12 @@ public class PATRICIATrie<Value> {
          */
         if (key.isEmpty()) {
 
-            // size is incremented only if root's value is null,
-            // meaning it'k key is the first time it is being processed.
-            if(root.getValue() == null){
+            // root's value being null means root holds no entry, so a null value
+            // for the empty key removes it, as it is neither counted nor walked.
+            if(root.getValue() == null && value != null){
                 size++;
+            } else if(root.getValue() != null && value == null){
+                size--;
             }
 
             root.setValue(value);
@@ -77,7 +106,7 @@ public class PATRICIATrie<Value> {
 
         PATRICIATrieNode<Value> found = getNearestKey(key, lengthInBits);
 
-        if (found.getKey().equals(key)){
+        if (analyser.equalKeys(found.getKey(), key)){
 
             found.setValue(value);
             return true;
@@ -104,6 +133,17 @@ public class PATRICIATrie<Value> {
             else child = child.getRight();
         }
 
+        link(parent, child, key, value, firstDifferentBit, lengthInBits);
+        return true;
+    }
+
+    /*
+    Links a new node for key between parent and child, which is either parent's
+    downward child or the node parent's upward link points to. value must be interned.
+     */
+    PATRICIATrieNode<Value> link(PATRICIATrieNode<Value> parent, PATRICIATrieNode<Value> child,
+                                 String key, Value value, int firstDifferentBit, int lengthInBits){
+
         PATRICIATrieNode<Value> entry = new PATRICIATrieNode<>(key, value, firstDifferentBit);
         boolean isBitSet = analyser.isBitSet(key, firstDifferentBit, lengthInBits);
         if (!isBitSet){
@@ -122,13 +162,14 @@ public class PATRICIATrie<Value> {
         }
 
         size++;
-        return true;
+        modCount++;
+        return entry;
     }
 
-    public PATRICIATrieNode<Value> getNearestKey(String key, int lengthInBits){
+    public PATRICIATrieNode<Value> getNearestKey(CharSequence key, int lengthInBits){
 
-        if (root.getKey().equals(key)) return root;
-        if (root.getLeft().getKey().equals(key)) return root.getLeft();
+        if (analyser.equalKeys(root.getKey(), key)) return root;
+        if (analyser.equalKeys(root.getLeft().getKey(), key)) return root.getLeft();
 
         PATRICIATrieNode<Value> parent = root;
         PATRICIATrieNode<Value> current = root.getLeft();
@@ -161,7 +202,7 @@ public class PATRICIATrie<Value> {
 
         int lengthInBits = analyser.lengthInBits(key);
         PATRICIATrieNode<Value> found = getNearestKey(key, lengthInBits);
-        if (found.getKey().compareTo(key) == 0) return found.getValue();
+        if (analyser.equalKeys(found.getKey(), key)) return found.getValue();
         else return null;
     }
 
@@ -170,8 +211,288 @@ public class PATRICIATrie<Value> {
         return get(key) != null;
     }
 
+    /**
+     * Puts value for a new key, or the result of remapping the current value and value
+     * for a key already in the trie, as Map.merge does: a null result removes the key.
+     * Only new keys are copied into a String, so key may be a buffer reused from call to call.
+     */
+    public void merge(CharSequence key, Value value,
+                      BiFunction<? super Value, ? super Value, ? extends Value> remapping){
+
+        if (key == null) return;
+
+        PATRICIATrieNode<Value> found = getNearestKey(key, analyser.lengthInBits(key));
+
+        // root holds no entry until the empty key is put
+        if (!analyser.equalKeys(found.getKey(), key) || (found == root && root.getValue() == null)) {
+            put(key.toString(), value);
+            return;
+        }
+
+        Value current = found.getValue();
+        Value merged = current == null ? value : remapping.apply(current, value);
+
+        if (merged == null) remove(key.toString());
+        else found.setValue(intern(merged));
+    }
+
+    /**
+     * Removes every entry whose value matches filter.
+     * @return number of entries removed
+     */
+    public long removeIf(Predicate<? super Value> filter){
+
+        List<String> keys = entryStream()
+                .filter(entry -> filter.test(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        keys.forEach(this::remove);
+        return keys.size();
+    }
+
+    public Value remove(String key){
+
+        if (key == null) return null;
+
+        /*
+         The empty string lives at the root, which is never unlinked.
+         */
+        if (key.isEmpty()) {
+
+            Value value = root.getValue();
+            if (value != null) size--;
+            root.setValue(null);
+            return value;
+        }
+
+        int lengthInBits = analyser.lengthInBits(key);
+
+        /*
+        Same traversal as getNearestKey, but keeping track of three more nodes:
+        grandParent, the parent of parent; and keyParent, the node whose downward
+        link reaches the node holding key. When the loop ends current holds the
+        nearest key and parent is the node whose upward link points to it.
+         */
+        PATRICIATrieNode<Value> grandParent = null;
+        PATRICIATrieNode<Value> keyParent = null;
+        PATRICIATrieNode<Value> parent = root;
+        PATRICIATrieNode<Value> current = root.getLeft();
+
+        while (current.getIndexBit() > parent.getIndexBit()) {
+
+            if (analyser.equalKeys(current.getKey(), key)) keyParent = parent;
+
+            grandParent = parent;
+            parent = current;
+
+            if (!analyser.isBitSet(key, current.getIndexBit(), lengthInBits)) current = current.getLeft();
+            else current = current.getRight();
+        }
+
+        if (!analyser.equalKeys(current.getKey(), key)) return null;
+
+        PATRICIATrieNode<Value> found = current;
+
+        if (parent == found) {
+
+            /*
+            The node points upward to itself. It is unlinked by having its
+            parent point to the node's other child.
+             */
+            PATRICIATrieNode<Value> other = found.getLeft() == found ? found.getRight() : found.getLeft();
+            replaceChild(keyParent, found, other);
+
+        } else {
+
+            /*
+            parent is the node whose upward link points to found. parent is
+            removed from its position, its grand parent pointing to parent's
+            other child, and then parent takes over found's position in the trie.
+            The node that pointed upward to parent keeps doing so, which is still
+            correct because parent moved up.
+             */
+            PATRICIATrieNode<Value> other = parent.getLeft() == found ? parent.getRight() : parent.getLeft();
+            replaceChild(grandParent, parent, other);
+
+            parent.setIndexBit(found.getIndexBit());
+            parent.setLeft(found.getLeft());
+            parent.setRight(found.getRight());
+            replaceChild(keyParent, found, parent);
+        }
+
+        size--;
+        modCount++;
+        return found.getValue();
+    }
+
+    private void replaceChild(PATRICIATrieNode<Value> parent, PATRICIATrieNode<Value> child,
+                              PATRICIATrieNode<Value> replacement) {
+
+        if (parent.getLeft() == child) parent.setLeft(replacement);
+        else parent.setRight(replacement);
+    }
+
     public long size(){
 
         return size;
     }
+
+    public StringAnalyser getAnalyser(){
+
+        return analyser;
+    }
+
+    /**
+     * @return number of distinct values, when dictionary encoded, or -1
+     */
+    public int distinctValues(){
+
+        return dictionary == null ? -1 : dictionary.size();
+    }
+
+    Value intern(Value value){
+
+        if (dictionary == null || value == null) return value;
+        return dictionary.intern(value);
+    }
+
+    /**
+     * Looks up a batch of keys.
+     * @param keys keys to look up
+     * @return the values of keys, in the same order. Missing keys get null
+     */
+    public List<Value> getAll(List<String> keys){
+
+        PATRICIATrieNode<Value>[] nearest = getNearestKeys(keys);
+        List<Value> values = new ArrayList<>(keys.size());
+
+        for (int i = 0; i < nearest.length; i++) {
+
+            String key = keys.get(i);
+            boolean found = key != null && analyser.equalKeys(nearest[i].getKey(), key);
+            values.add(found ? nearest[i].getValue() : null);
+        }
+
+        return values;
+    }
+
+    /**
+     * Inserts a batch of entries. Keys already in the trie are found by a batched
+     * lookup and updated in place. Only new keys go through put.
+     * @param entries entries to insert. Null keys are ignored
+     */
+    public void putAll(Map<String, ? extends Value> entries){
+
+        List<String> keys = new ArrayList<>(entries.keySet());
+        PATRICIATrieNode<Value>[] nearest = getNearestKeys(keys);
+
+        /*
+        Inserting a key never replaces an existing node, so a node found
+        holding its key stays valid while the other keys are inserted.
+         */
+        for (int i = 0; i < nearest.length; i++) {
+
+            String key = keys.get(i);
+            if (key == null) continue;
+
+            if (analyser.equalKeys(nearest[i].getKey(), key)) {
+                if (key.isEmpty() && nearest[i].getValue() == null) put(key, entries.get(key));
+                else nearest[i].setValue(intern(entries.get(key)));
+            } else {
+                put(key, entries.get(key));
+            }
+        }
+    }
+
+    /**
+     * @return a cursor remembering the path of its last lookup, so lookups and puts of
+     * keys sharing long prefixes, such as sorted or clustered keys, resume from where
+     * their paths part instead of from root. Every thread needs its own. See PATRICIATrieCursor
+     */
+    public PATRICIATrieCursor<Value> cursor(){
+
+        return new PATRICIATrieCursor<>(this, root, analyser);
+    }
+
+    long modCount(){
+
+        return modCount;
+    }
+
+    /**
+     * @return a spliterator over this trie's entries, in key order. It splits by handing
+     * off subtrees, so parallel streams over it share the work evenly
+     */
+    public Spliterator<Map.Entry<String, Value>> spliterator(){
+
+        return new PATRICIATrieSpliterator<>(root, size, analyser);
+    }
+
+    /**
+     * @return a sequential stream of this trie's entries, in key order. Call parallel()
+     * on it to spread a full scan over a ForkJoinPool
+     */
+    public Stream<Map.Entry<String, Value>> entryStream(){
+
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return a sequential stream of the entries with keys from from on, in key order.
+     * Subtrees of smaller keys are skipped without being walked
+     */
+    public Stream<Map.Entry<String, Value>> entryStream(String from){
+
+        if (from == null) return entryStream();
+        return StreamSupport.stream(new PATRICIATrieSpliterator<>(root, size, analyser, from), false);
+    }
+
+    /*
+    Same as getNearestKey for a batch of keys. Descents for INTERLEAVE keys at
+    a time are walked in lockstep, one level each in turn. As descents are
+    independent of each other, the processor can wait for their nodes to come
+    from memory in parallel instead of one after the other. Null keys get root.
+     */
+    private PATRICIATrieNode<Value>[] getNearestKeys(List<String> keys){
+
+        @SuppressWarnings("unchecked")
+        PATRICIATrieNode<Value>[] nearest = (PATRICIATrieNode<Value>[]) new PATRICIATrieNode<?>[keys.size()];
+        @SuppressWarnings("unchecked")
+        PATRICIATrieNode<Value>[] parents = (PATRICIATrieNode<Value>[]) new PATRICIATrieNode<?>[INTERLEAVE];
+        String[] group = new String[INTERLEAVE];
+        int[] lengthsInBits = new int[INTERLEAVE];
+
+        for (int first = 0; first < nearest.length; first += INTERLEAVE) {
+
+            int n = Math.min(INTERLEAVE, nearest.length - first);
+            for (int i = 0; i < n; i++) {
+                group[i] = keys.get(first + i);
+                lengthsInBits[i] = group[i] == null ? 0 : analyser.lengthInBits(group[i]);
+                parents[i] = root;
+
+                // The empty key is at root
+                boolean atRoot = group[i] == null || group[i].isEmpty();
+                nearest[first + i] = atRoot ? root : root.getLeft();
+            }
+
+            boolean descending = true;
+            while (descending) {
+
+                descending = false;
+                for (int i = 0; i < n; i++) {
+
+                    PATRICIATrieNode<Value> current = nearest[first + i];
+                    if (current.getIndexBit() <= parents[i].getIndexBit()) continue;
+
+                    boolean isBitSet = analyser.isBitSet(group[i], current.getIndexBit(), lengthsInBits[i]);
+                    parents[i] = current;
+                    nearest[first + i] = !isBitSet ? current.getLeft() : current.getRight();
+                    descending = true;
+                }
+            }
+        }
+
+        return nearest;
+    }
 }
@@ -0,0 +1,185 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.nodes.PATRICIATrieNode;
+
+import java.util.Arrays;
+
+/**
+ * A finger into a PATRICIATrie: looks up and puts keys like the trie does, but remembers
+ * the downward path of its last descent. Nodes on that path with an index bit before the
+ * first bit where the new key differs from the last one were reached the same way by both
+ * keys, so the next descent resumes from the deepest of them instead of from root. When
+ * consecutive keys share long prefixes, as sorted or clustered keys do, a descent costs
+ * about the number of nodes testing bits of the differing suffix rather than the full depth.
+ *
+ * Nodes linked or unlinked by anything else than this cursor make the path stale, in
+ * which case the next descent starts from root. Not thread safe, lookups included: get
+ * and containsKey move the cursor's path, so a cursor is meant for one thread.
+ */
+public class PATRICIATrieCursor<Value> {
+
+    private final PATRICIATrie<Value> trie;
+    private final PATRICIATrieNode<Value> root;
+    private final StringAnalyser analyser;
+
+    private PATRICIATrieNode<Value>[] path; //path[0] is root, path[1..depth] downward nodes of the last descent
+    private int depth;
+    private PATRICIATrieNode<Value> found; //node the last descent ended at
+    private String lastKey; //key of the last descent, null when there is no path to resume from
+    private long expectedModCount; //trie's modCount when the path was walked
+    private long nodesVisited; //downward nodes walked so far, for comparing against full descents
+
+    PATRICIATrieCursor(PATRICIATrie<Value> trie, PATRICIATrieNode<Value> root, StringAnalyser analyser) {
+
+        this.trie = trie;
+        this.root = root;
+        this.analyser = analyser;
+
+        @SuppressWarnings("unchecked")
+        PATRICIATrieNode<Value>[] path = (PATRICIATrieNode<Value>[]) new PATRICIATrieNode<?>[32];
+        this.path = path;
+        this.path[0] = root;
+    }
+
+    public Value get(String key) {
+
+        if (key == null) return null;
+
+        PATRICIATrieNode<Value> node = seek(key, analyser.lengthInBits(key));
+        return analyser.equalKeys(node.getKey(), key) ? node.getValue() : null;
+    }
+
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    /**
+     * Same as PATRICIATrie.put. A new key's node is linked where the trie would link it,
+     * found on the path just walked, and becomes the end of the path.
+     */
+    public boolean put(String key, Value value) {
+
+        // Key cannot be null
+        if (key == null) return false;
+
+        // The empty key lives at root, which is never on the way
+        if (key.isEmpty()) return trie.put(key, value);
+
+        int lengthInBits = analyser.lengthInBits(key);
+        PATRICIATrieNode<Value> node = seek(key, lengthInBits);
+
+        if (analyser.equalKeys(node.getKey(), key)) {
+
+            node.setValue(trie.intern(value));
+            return true;
+        }
+
+        int firstDifferentBit = analyser.firstDifferentBitIndex(node.getKey(), key);
+
+        /*
+        PATRICIATrie.put walks the same path from root and links the new node above the
+        first child with an index bit from firstDifferentBit on, or above node when there
+        is none. Index bits grow along the path, so that child is found from the end.
+         */
+        int child = depth + 1;
+        while (child > 1 && path[child - 1].getIndexBit() >= firstDifferentBit) child--;
+
+        PATRICIATrieNode<Value> parent = path[child - 1];
+        PATRICIATrieNode<Value> entry = trie.link(parent, child <= depth ? path[child] : node,
+                key, trie.intern(value), firstDifferentBit, lengthInBits);
+
+        // key's descent now goes through parent to entry, whose upward link points to itself
+        depth = child - 1;
+        if (entry.getIndexBit() > parent.getIndexBit()) push(entry);
+        found = entry;
+        expectedModCount = trie.modCount();
+
+        return true;
+    }
+
+    /**
+     * @return number of downward nodes walked by this cursor's descents so far
+     */
+    public long nodesVisited() {
+
+        return nodesVisited;
+    }
+
+    /*
+    Same as PATRICIATrie.getNearestKey, resuming from the deepest node of the last
+    path whose descent does not depend on bits where key and lastKey differ.
+     */
+    private PATRICIATrieNode<Value> seek(String key, int lengthInBits) {
+
+        if (key.isEmpty()) return root;
+
+        if (lastKey == null || expectedModCount != trie.modCount()) {
+
+            depth = 0;
+
+        } else {
+
+            int firstDifferentBit = analyser.firstDifferentBitIndex(lastKey, key);
+
+            // Same bits, same descent
+            if (firstDifferentBit < 0) {
+                lastKey = key;
+                return found;
+            }
+
+            /*
+            path[i] was reached through the bits tested by path[0..i-1], root always
+            going left. The first node testing a bit from firstDifferentBit on is the
+            last one both keys reach, and the descent goes on from it.
+             */
+            while (depth > 1 && path[depth - 1].getIndexBit() >= firstDifferentBit) depth--;
+        }
+
+        PATRICIATrieNode<Value> parent = path[depth];
+        PATRICIATrieNode<Value> current = next(parent, key, lengthInBits);
+
+        while (current.getIndexBit() > parent.getIndexBit()) {
+
+            push(current);
+            parent = current;
+            current = next(parent, key, lengthInBits);
+        }
+
+        found = current;
+        lastKey = key;
+        expectedModCount = trie.modCount();
+
+        return current;
+    }
+
+    private PATRICIATrieNode<Value> next(PATRICIATrieNode<Value> node, String key, int lengthInBits) {
+
+        if (node == root || !analyser.isBitSet(key, node.getIndexBit(), lengthInBits)) return node.getLeft();
+        else return node.getRight();
+    }
+
+    private void push(PATRICIATrieNode<Value> node) {
+
+        if (++depth == path.length) path = Arrays.copyOf(path, path.length * 2);
+        path[depth] = node;
+        nodesVisited++;
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.nodes.PATRICIATrieNode;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Walks the entries of a PATRICIATrie in key order, bit by bit, which for keys is the
+ * order given by StringAnalyser.compareStrings.
+ *
+ * What is left to walk is a deque of links of the trie. A downward link, one
+ * reaching a node with a higher index bit, stands for the whole subtree below
+ * it. An upward link stands for the single entry at the node it reaches, as
+ * every node is reached by exactly one upward link. Splitting hands the first
+ * half of the deque to a new spliterator, and when only one subtree is left,
+ * first replaces it by its left and right links. Subtrees are handed off whole,
+ * so parallel streams get balanced work without copying entries.
+ *
+ * A walk may also start at a given key. The deque then starts as the links hanging
+ * right of that key's search path, so subtrees of smaller keys are never visited.
+ *
+ * The trie must not be changed while it is walked.
+ */
+final class PATRICIATrieSpliterator<Value> implements Spliterator<Map.Entry<String, Value>> {
+
+    private final PATRICIATrieNode<Value> root;
+    private final Comparator<Map.Entry<String, Value>> comparator;
+    private final Deque<Link<Value>> pending;
+    private long estimatedSize;
+    private boolean sized; //true while estimatedSize is the exact size, i.e. until the first split
+
+    PATRICIATrieSpliterator(PATRICIATrieNode<Value> root, long size, StringAnalyser analyser) {
+
+        this(root, Map.Entry.comparingByKey(analyser::compareStrings), new ArrayDeque<>(), size, true);
+
+        // root's only downward link is its left one
+        pending.add(new Link<>(root, root.getLeft()));
+    }
+
+    /*
+    Entries with keys from from on. Every key below a node shares its bits before the
+    node's index bit, so along from's path, right subtrees left behind hold greater
+    keys and left ones smaller keys. The path is followed while it tests bits before
+    the first one where from and its nearest key differ. The link it stops at leads to
+    keys sharing that bit with the nearest key, all of them greater than from or all
+    smaller. When from is in the trie, that link reaches it.
+     */
+    PATRICIATrieSpliterator(PATRICIATrieNode<Value> root, long size, StringAnalyser analyser, String from) {
+
+        this(root, Map.Entry.comparingByKey(analyser::compareStrings), new ArrayDeque<>(), size, false);
+
+        if (from.isEmpty()) {
+            pending.add(new Link<>(root, root.getLeft()));
+            return;
+        }
+
+        int lengthInBits = analyser.lengthInBits(from);
+        PATRICIATrieNode<Value> nearest = root.getLeft();
+        for (PATRICIATrieNode<Value> parent = root; nearest.getIndexBit() > parent.getIndexBit(); ) {
+            parent = nearest;
+            nearest = analyser.isBitSet(from, parent.getIndexBit(), lengthInBits) ? parent.getRight() : parent.getLeft();
+        }
+
+        int firstDifferentBit = analyser.firstDifferentBitIndex(nearest.getKey(), from);
+        int stopBit = firstDifferentBit < 0 ? Integer.MAX_VALUE : firstDifferentBit;
+
+        // Deeper right subtrees hold smaller keys, so they go first
+        PATRICIATrieNode<Value> parent = root;
+        PATRICIATrieNode<Value> current = root.getLeft();
+        while (current.getIndexBit() > parent.getIndexBit() && current.getIndexBit() < stopBit) {
+
+            parent = current;
+            if (analyser.isBitSet(from, parent.getIndexBit(), lengthInBits)) {
+                current = parent.getRight();
+            } else {
+                pending.addFirst(new Link<>(parent, parent.getRight()));
+                current = parent.getLeft();
+            }
+        }
+
+        boolean greater = firstDifferentBit < 0
+                || analyser.isBitSet(nearest.getKey(), firstDifferentBit, analyser.lengthInBits(nearest.getKey()));
+        if (greater) pending.addFirst(new Link<>(parent, current));
+    }
+
+    private PATRICIATrieSpliterator(PATRICIATrieNode<Value> root, Comparator<Map.Entry<String, Value>> comparator,
+                                    Deque<Link<Value>> pending, long estimatedSize, boolean sized) {
+
+        this.root = root;
+        this.comparator = comparator;
+        this.pending = pending;
+        this.estimatedSize = estimatedSize;
+        this.sized = sized;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Map.Entry<String, Value>> action) {
+
+        while (!pending.isEmpty()) {
+
+            Link<Value> link = pending.pollFirst();
+
+            if (link.isDownward()) {
+                expand(link.to);
+            } else if (emit(link.to, action)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Map.Entry<String, Value>> action) {
+
+        while (!pending.isEmpty()) {
+
+            Link<Value> link = pending.pollFirst();
+
+            if (link.isDownward()) expand(link.to);
+            else emit(link.to, action);
+        }
+    }
+
+    @Override
+    public Spliterator<Map.Entry<String, Value>> trySplit() {
+
+        // A single subtree left is replaced by its two links
+        while (pending.size() == 1 && pending.peekFirst().isDownward()) {
+            expand(pending.pollFirst().to);
+        }
+
+        int half = pending.size() / 2;
+        if (half == 0) return null;
+
+        // The prefix goes to the new spliterator, keeping encounter order
+        Deque<Link<Value>> prefix = new ArrayDeque<>(half);
+        for (int i = 0; i < half; i++) prefix.addLast(pending.pollFirst());
+
+        long prefixSize = estimatedSize / 2;
+        estimatedSize -= prefixSize;
+        sized = false;
+
+        return new PATRICIATrieSpliterator<>(root, comparator, prefix, prefixSize, false);
+    }
+
+    @Override
+    public long estimateSize() {
+
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+
+        int characteristics = ORDERED | SORTED | DISTINCT | NONNULL;
+        return sized ? characteristics | SIZED : characteristics;
+    }
+
+    @Override
+    public Comparator<? super Map.Entry<String, Value>> getComparator() {
+
+        return comparator;
+    }
+
+    private void expand(PATRICIATrieNode<Value> node) {
+
+        pending.addFirst(new Link<>(node, node.getRight()));
+        pending.addFirst(new Link<>(node, node.getLeft()));
+    }
+
+    /*
+    root only holds an entry once the empty key was put.
+     */
+    private boolean emit(PATRICIATrieNode<Value> node, Consumer<? super Map.Entry<String, Value>> action) {
+
+        if (node == root && node.getValue() == null) return false;
+
+        if (estimatedSize > 0) estimatedSize--;
+        action.accept(new AbstractMap.SimpleImmutableEntry<>(node.getKey(), node.getValue()));
+        return true;
+    }
+
+    private static final class Link<Value> {
+
+        private final PATRICIATrieNode<Value> from;
+        private final PATRICIATrieNode<Value> to;
+
+        Link(PATRICIATrieNode<Value> from, PATRICIATrieNode<Value> to) {
+
+            this.from = from;
+            this.to = to;
+        }
+
+        boolean isDownward() {
+
+            return to.getIndexBit() > from.getIndexBit();
+        }
+    }
+}
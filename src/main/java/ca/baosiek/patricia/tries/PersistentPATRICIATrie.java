@@ -0,0 +1,228 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.nodes.PersistentTrieNode;
+
+import java.util.function.Predicate;
+
+/**
+ * An immutable PATRICIA trie. put and remove leave this trie as it is and return a
+ * new version, which copies only the nodes on the path to the changed key and shares
+ * every other node with this one. Versions are cheap, O(depth), and any version
+ * stays valid and consistent for as long as someone holds it, with no locking.
+ *
+ * PATRICIATrie's upward links would have a change copy every node pointing up to
+ * a copied node. So keys are kept at leaves and branches only hold the index bit
+ * they test, with bits read through the same StringAnalyser.
+ */
+public final class PersistentPATRICIATrie<Value> {
+
+    private final StringAnalyser analyser; //helper class to analyse strings
+    private final PersistentTrieNode<Value> root; //null while empty
+    private final long size; //number of elements in this version
+
+    /**
+     * Builds an empty trie
+     */
+    public PersistentPATRICIATrie(StringAnalyser analyser) {
+
+        this(analyser, null, 0);
+    }
+
+    private PersistentPATRICIATrie(StringAnalyser analyser, PersistentTrieNode<Value> root, long size) {
+
+        this.analyser = analyser;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return a version of this trie with key mapped to value
+     */
+    public PersistentPATRICIATrie<Value> put(String key, Value value) {
+
+        // Key cannot be null
+        if (key == null) return this;
+
+        if (root == null) return new PersistentPATRICIATrie<>(analyser, new PersistentTrieNode<>(key, value), 1);
+
+        int lengthInBits = analyser.lengthInBits(key);
+        PersistentTrieNode<Value> nearest = getNearestLeaf(key, lengthInBits);
+
+        // Key is kept as first put, as PATRICIATrie does
+        if (analyser.equalKeys(nearest.getKey(), key)) {
+
+            if (nearest.getValue() == value) return this;
+
+            PersistentTrieNode<Value> leaf = new PersistentTrieNode<>(nearest.getKey(), value);
+            return new PersistentPATRICIATrie<>(analyser, replace(root, key, lengthInBits, leaf), size);
+        }
+
+        int firstDifferentBit = analyser.firstDifferentBitIndex(nearest.getKey(), key);
+        if (firstDifferentBit < 0) {
+            throw new IllegalArgumentException("Key has the same bits as " + nearest.getKey());
+        }
+
+        PersistentTrieNode<Value> leaf = new PersistentTrieNode<>(key, value);
+        return new PersistentPATRICIATrie<>(analyser,
+                insert(root, key, lengthInBits, leaf, firstDifferentBit), size + 1);
+    }
+
+    /**
+     * @return a version of this trie without key, or this trie when key isn't in it
+     */
+    public PersistentPATRICIATrie<Value> remove(String key) {
+
+        if (key == null || root == null) return this;
+
+        int lengthInBits = analyser.lengthInBits(key);
+        if (!analyser.equalKeys(getNearestLeaf(key, lengthInBits).getKey(), key)) return this;
+
+        return new PersistentPATRICIATrie<>(analyser, delete(root, key, lengthInBits), size - 1);
+    }
+
+    /**
+     * @return a version of this trie without the entries whose value matches filter, or
+     * this trie when none does. Subtrees with no match are shared, not copied
+     */
+    public PersistentPATRICIATrie<Value> removeIf(Predicate<? super Value> filter) {
+
+        if (root == null) return this;
+
+        long[] removed = new long[1];
+        PersistentTrieNode<Value> kept = prune(root, filter, removed);
+
+        return removed[0] == 0 ? this : new PersistentPATRICIATrie<>(analyser, kept, size - removed[0]);
+    }
+
+    public Value get(String key) {
+
+        if (key == null || root == null) return null;
+
+        PersistentTrieNode<Value> nearest = getNearestLeaf(key, analyser.lengthInBits(key));
+        return analyser.equalKeys(nearest.getKey(), key) ? nearest.getValue() : null;
+    }
+
+    public boolean containsKey(String key) {
+
+        return get(key) != null;
+    }
+
+    public long size() {
+
+        return size;
+    }
+
+    /*
+    Follows key's bits down to a leaf. Its key is the only one that may equal key.
+     */
+    private PersistentTrieNode<Value> getNearestLeaf(String key, int lengthInBits) {
+
+        PersistentTrieNode<Value> node = root;
+        while (!node.isLeaf()) {
+            node = analyser.isBitSet(key, node.getIndexBit(), lengthInBits) ? node.getRight() : node.getLeft();
+        }
+
+        return node;
+    }
+
+    /*
+    Copies the path down to where a branch testing firstDifferentBit goes, i.e. the
+    first node that is a leaf or tests a later bit, and puts the branch there with
+    leaf on one side and that node on the other.
+     */
+    private PersistentTrieNode<Value> insert(PersistentTrieNode<Value> node, String key, int lengthInBits,
+                                             PersistentTrieNode<Value> leaf, int firstDifferentBit) {
+
+        if (node.isLeaf() || node.getIndexBit() > firstDifferentBit) {
+
+            return analyser.isBitSet(key, firstDifferentBit, lengthInBits)
+                    ? new PersistentTrieNode<>(firstDifferentBit, node, leaf)
+                    : new PersistentTrieNode<>(firstDifferentBit, leaf, node);
+        }
+
+        if (analyser.isBitSet(key, node.getIndexBit(), lengthInBits)) {
+            return new PersistentTrieNode<>(node.getIndexBit(), node.getLeft(),
+                    insert(node.getRight(), key, lengthInBits, leaf, firstDifferentBit));
+        }
+
+        return new PersistentTrieNode<>(node.getIndexBit(),
+                insert(node.getLeft(), key, lengthInBits, leaf, firstDifferentBit), node.getRight());
+    }
+
+    /*
+    Copies the path down to key's leaf, which leaf takes the place of.
+     */
+    private PersistentTrieNode<Value> replace(PersistentTrieNode<Value> node, String key, int lengthInBits,
+                                              PersistentTrieNode<Value> leaf) {
+
+        if (node.isLeaf()) return leaf;
+
+        if (analyser.isBitSet(key, node.getIndexBit(), lengthInBits)) {
+            return new PersistentTrieNode<>(node.getIndexBit(), node.getLeft(),
+                    replace(node.getRight(), key, lengthInBits, leaf));
+        }
+
+        return new PersistentTrieNode<>(node.getIndexBit(),
+                replace(node.getLeft(), key, lengthInBits, leaf), node.getRight());
+    }
+
+    /*
+    Copies the paths down to leaves matching filter, minus those leaves and their
+    parent branches, whose places go to their siblings. Returns null when no leaf
+    is left below node, and node itself when none matched.
+     */
+    private PersistentTrieNode<Value> prune(PersistentTrieNode<Value> node, Predicate<? super Value> filter,
+                                            long[] removed) {
+
+        if (node.isLeaf()) {
+            if (!filter.test(node.getValue())) return node;
+
+            removed[0]++;
+            return null;
+        }
+
+        PersistentTrieNode<Value> left = prune(node.getLeft(), filter, removed);
+        PersistentTrieNode<Value> right = prune(node.getRight(), filter, removed);
+
+        if (left == node.getLeft() && right == node.getRight()) return node;
+        if (left == null) return right;
+        if (right == null) return left;
+
+        return new PersistentTrieNode<>(node.getIndexBit(), left, right);
+    }
+
+    /*
+    Copies the path down to key's leaf, minus the leaf's parent branch,
+    whose place goes to the leaf's sibling. Returns null for the leaf itself.
+     */
+    private PersistentTrieNode<Value> delete(PersistentTrieNode<Value> node, String key, int lengthInBits) {
+
+        if (node.isLeaf()) return null;
+
+        boolean isBitSet = analyser.isBitSet(key, node.getIndexBit(), lengthInBits);
+        PersistentTrieNode<Value> child = delete(isBitSet ? node.getRight() : node.getLeft(), key, lengthInBits);
+
+        if (child == null) return isBitSet ? node.getLeft() : node.getRight();
+
+        return isBitSet
+                ? new PersistentTrieNode<>(node.getIndexBit(), node.getLeft(), child)
+                : new PersistentTrieNode<>(node.getIndexBit(), child, node.getRight());
+    }
+}
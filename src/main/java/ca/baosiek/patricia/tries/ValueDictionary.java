@@ -0,0 +1,72 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns values: equal values get the same int code and share a single instance,
+ * the first one seen. Codes are dense, starting at 0, in order of first appearance.
+ * Values are never dropped, even when nothing refers to them any longer.
+ *
+ * A dictionary encoded PATRICIATrie only keeps the shared instances, through intern.
+ * OffHeapSymbolTable stores codes in its trie instead, through encode and decode.
+ */
+public class ValueDictionary<Value> {
+
+    private final Map<Value, Integer> codes = new HashMap<>(); //code of every distinct value
+    private final List<Value> values = new ArrayList<>(); //distinct values, indexed by code
+
+    /**
+     * @return the code of value, adding it to this dictionary when first seen
+     */
+    public int encode(Value value) {
+
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        code = values.size();
+        codes.put(value, code);
+        values.add(value);
+
+        return code;
+    }
+
+    /**
+     * @return the shared instance equal to value
+     */
+    public Value intern(Value value) {
+
+        return decode(encode(value));
+    }
+
+    public Value decode(int code) {
+
+        return values.get(code);
+    }
+
+    /**
+     * @return number of distinct values
+     */
+    public int size() {
+
+        return values.size();
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.analysers;
+
+import ca.baosiek.patricia.tries.PATRICIATrie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizingStringAnalyserTest {
+
+    @Test
+    void equalKeysFoldsCase() {
+
+        NormalizingStringAnalyser analyser = new NormalizingStringAnalyser();
+
+        assertTrue(analyser.equalKeys("Foo", "fOO"));
+        assertTrue(analyser.equalKeys("ÉTÉ", "été"));
+        assertTrue(analyser.equalKeys("ΣΊΣΥΦΟΣ", "σίσυφος"));
+        assertTrue(analyser.equalKeys("ǅ", "ǆ"));
+        assertFalse(analyser.equalKeys("été", "ete"));
+        assertFalse(analyser.equalKeys("foo", "fo"));
+        assertEquals(analyser.hashKey("ΣΊΣΥΦΟΣ"), analyser.hashKey("σίσυφος"));
+    }
+
+    @Test
+    void equalKeysStripsAccents() {
+
+        NormalizingStringAnalyser analyser = new NormalizingStringAnalyser(true);
+
+        assertTrue(analyser.equalKeys("Été", "ete"));
+        assertTrue(analyser.equalKeys("Ångström", "ANGSTROM"));
+        assertTrue(analyser.equalKeys("ΣΊΣΥΦΟΣ", "σισυφοσ"));
+        assertFalse(analyser.equalKeys("ø", "o")); // not a base character and a mark
+        assertEquals(analyser.hashKey("Été"), analyser.hashKey("ete"));
+    }
+
+    @Test
+    void combiningSequencesNeedNfc() {
+
+        NormalizingStringAnalyser analyser = new NormalizingStringAnalyser(true);
+        String decomposed = "e\u0301";
+
+        assertFalse(analyser.equalKeys(decomposed, "é"));
+        assertTrue(analyser.equalKeys(Normalizer.normalize(decomposed, Normalizer.Form.NFC), "é"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void trieMatchesFoldedTreeMap(boolean stripAccents) {
+
+        NormalizingStringAnalyser analyser = new NormalizingStringAnalyser(stripAccents);
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+
+        // Folded key to the key first put and its value
+        TreeMap<String, Map.Entry<String, Integer>> oracle = new TreeMap<>();
+        Random random = new Random(30);
+        String alphabet = "aAeEéÉèÈiIİıσΣςøǾ";
+
+        for (int i = 0; i < 30000; i++) {
+
+            StringBuilder key = new StringBuilder();
+            for (int length = random.nextInt(6); length > 0; length--) {
+                key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            String folded = fold(key.toString(), stripAccents);
+            if (random.nextBoolean()) {
+                trie.put(key.toString(), i);
+                Map.Entry<String, Integer> first = oracle.get(folded);
+                oracle.put(folded, Map.entry(first == null ? key.toString() : first.getKey(), i));
+            } else {
+                Map.Entry<String, Integer> entry = oracle.get(folded);
+                assertEquals(entry == null ? null : entry.getValue(), trie.get(key.toString()), key.toString());
+            }
+        }
+
+        assertEquals(oracle.size(), trie.size());
+        assertEquals(new ArrayList<>(oracle.values()), trie.entryStream().collect(Collectors.toList()));
+    }
+
+    /*
+    Folds key a character at a time, as String.equalsIgnoreCase does, after taking
+    the base character of characters decomposing into one followed by marks only.
+     */
+    private static String fold(String key, boolean stripAccents) {
+
+        StringBuilder folded = new StringBuilder();
+
+        for (char c : key.toCharArray()) {
+
+            if (stripAccents) {
+                String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                boolean marksOnly = decomposed.chars().skip(1)
+                        .allMatch(mark -> Character.getType(mark) == Character.NON_SPACING_MARK);
+                if (marksOnly) c = decomposed.charAt(0);
+            }
+
+            folded.append(Character.toLowerCase(Character.toUpperCase(c)));
+        }
+
+        return folded.toString();
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.apps;
+
+import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.SymbolTableFactory;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordCountTest {
+
+    @Test
+    void nGramsDoNotSpanLines() {
+
+        List<String> tokens = new ArrayList<>();
+        WordCount.tokenize("The cat sat.", true, true, tokens);
+        WordCount.tokenize(" On the mat, the cat", true, true, tokens);
+        WordCount.tokenize("", true, true, tokens);
+        WordCount.tokenize("sat", true, true, tokens);
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable("1");
+        AtomicInteger nGrams = new AtomicInteger();
+        WordCount.insertNGrams(st, tokens, 2, nGrams, 0L, false);
+
+        assertEquals(6, nGrams.get());
+        assertEquals(5, st.size());
+        assertEquals(2, st.get("the cat"));
+        assertEquals(1, st.get("cat sat"));
+        assertEquals(1, st.get("on the"));
+        assertNull(st.get("sat on"));
+    }
+
+    @Test
+    void unigramsHaveNoLineEnds() {
+
+        List<String> tokens = new ArrayList<>();
+        WordCount.tokenize("a b", true, false, tokens);
+        WordCount.tokenize("c", true, false, tokens);
+
+        assertEquals(List.of("a", "b", "c"), tokens);
+    }
+
+    @Test
+    void rejectsCacheInFrontOfCaseInsensitiveTable() {
+
+        InvalidParameterException e = assertThrows(InvalidParameterException.class,
+                () -> WordCount.main(new String[]{"-n", "missing.txt", "-d", "1", "-i", "-c", "16"}));
+        assertTrue(e.getMessage().contains("case sensitive"));
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.apps.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadDriverTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectsMissesWithoutUrlsKeptOut() throws IOException {
+
+        Path file = Files.writeString(directory.resolve("empty.csv"), "");
+
+        InvalidParameterException e = assertThrows(InvalidParameterException.class,
+                () -> LoadDriver.main(new String[]{"-n", file.toString(), "-d", "1"}));
+        assertTrue(e.getMessage().contains("misses"));
+    }
+
+    @Test
+    void rejectsReadsWithoutUrlsInTheTable() throws IOException {
+
+        Path file = Files.write(directory.resolve("one.csv"), List.of("http://www.example.com/,Top/Arts"));
+
+        InvalidParameterException e = assertThrows(InvalidParameterException.class,
+                () -> LoadDriver.main(new String[]{"-n", file.toString(), "-d", "1"}));
+        assertTrue(e.getMessage().contains("read"));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.apps.lookup;
+
+import ca.baosiek.patricia.symbolTableUtils.HashMapSymbolTable;
+import ca.baosiek.patricia.symbolTableUtils.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookupProtocolTest {
+
+    @Test
+    void answersPipelinedRequestsInOrder() throws IOException {
+
+        SymbolTable<String> st = new HashMapSymbolTable<>();
+        st.put("example.com", "Arts");
+
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(requests);
+        LookupProtocol.writeRequest(out, 7, "example.com");
+        LookupProtocol.writeRequest(out, 65535, "missing.org");
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(requests.toByteArray()));
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        DataOutputStream answers = new DataOutputStream(responses);
+        while (in.available() > 0) LookupProtocol.answer(in, answers, st);
+
+        byte[] bytes = responses.toByteArray();
+        assertEquals(2 + 1 + 1 + 4 + 2 + 1 + 1, bytes.length);
+        assertEquals(LookupProtocol.NO_ERROR, bytes[2]);
+        assertEquals(LookupProtocol.NX_DOMAIN, bytes[10]);
+
+        DataInputStream read = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertEquals(7, LookupProtocol.readResponse(read));
+        assertEquals(65535, LookupProtocol.readResponse(read));
+        assertEquals(0, read.available());
+    }
+
+    @Test
+    void rejectsNamesLongerThanALengthByte() {
+
+        DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream());
+
+        assertDoesNotThrow(() -> LookupProtocol.writeRequest(out, 1, "a".repeat(LookupProtocol.MAX_NAME)));
+        assertThrows(IllegalArgumentException.class,
+                () -> LookupProtocol.writeRequest(out, 1, "a".repeat(LookupProtocol.MAX_NAME + 1)));
+
+        // Two bytes per character in UTF-8
+        assertTrue(LookupProtocol.isValidName("é".repeat(LookupProtocol.MAX_NAME / 2)));
+        assertFalse(LookupProtocol.isValidName("é".repeat(LookupProtocol.MAX_NAME / 2 + 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> LookupProtocol.writeRequest(out, 1, "é".repeat(LookupProtocol.MAX_NAME / 2 + 1)));
+    }
+
+    @Test
+    void answersNonAsciiNames() throws IOException {
+
+        SymbolTable<String> st = new HashMapSymbolTable<>();
+        st.put("müller.de", "Café");
+
+        byte[] response = answer(st, "müller.de");
+
+        assertEquals(LookupProtocol.NO_ERROR, response[2]);
+        assertEquals("Café", new String(response, 4, response[3], StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void valuesTooLongForAResponseFail() throws IOException {
+
+        SymbolTable<String> st = new HashMapSymbolTable<>();
+        st.put("long.org", "a".repeat(256));
+        st.put("short.org", "a".repeat(255));
+
+        assertArrayEquals(new byte[]{0, 1, LookupProtocol.SERV_FAIL, 0}, answer(st, "long.org"));
+        assertEquals(LookupProtocol.MAX_RESPONSE, answer(st, "short.org").length);
+    }
+
+    private static byte[] answer(SymbolTable<String> st, String name) throws IOException {
+
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        LookupProtocol.writeRequest(new DataOutputStream(request), 1, name);
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        LookupProtocol.answer(new DataInputStream(new ByteArrayInputStream(request.toByteArray())),
+                new DataOutputStream(response), st);
+
+        return response.toByteArray();
+    }
+}
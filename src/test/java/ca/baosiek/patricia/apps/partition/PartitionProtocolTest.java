@@ -0,0 +1,149 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.apps.partition;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import ca.baosiek.patricia.tries.PATRICIATrie;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionProtocolTest {
+
+    private static PATRICIATrie<String> trie(String... keys) {
+
+        PATRICIATrie<String> trie = new PATRICIATrie<>(new StringAnalyser());
+        for (String key : keys) trie.put(key, key.toUpperCase());
+        return trie;
+    }
+
+    /*
+    Writes requests with write, runs them against trie and returns the responses.
+     */
+    private static DataInputStream run(PATRICIATrie<String> trie, Requests write) throws IOException {
+
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        write.to(new DataOutputStream(requests));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(requests.toByteArray()));
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(responses);
+        while (in.available() > 0) PartitionProtocol.answer(PartitionProtocol.readRequest(in), out, trie);
+
+        return new DataInputStream(new ByteArrayInputStream(responses.toByteArray()));
+    }
+
+    private interface Requests {
+        void to(DataOutputStream out) throws IOException;
+    }
+
+    @Test
+    void putsAndGets() throws IOException {
+
+        PATRICIATrie<String> trie = trie();
+        DataInputStream in = run(trie, out -> {
+            PartitionProtocol.writePut(out, "a", "1");
+            PartitionProtocol.writeGet(out, "a");
+            PartitionProtocol.writeGet(out, "b");
+            PartitionProtocol.writeSize(out);
+        });
+
+        PartitionProtocol.readAck(in);
+        assertEquals("1", PartitionProtocol.readOptionalString(in));
+        assertNull(PartitionProtocol.readOptionalString(in));
+        assertEquals(1, PartitionProtocol.readSize(in));
+    }
+
+    @Test
+    void scansRangesWithoutRemovingThem() throws IOException {
+
+        PATRICIATrie<String> trie = trie("a", "b", "ba", "bb", "c", "d");
+        DataInputStream in = run(trie, out -> {
+            PartitionProtocol.writeScan(out, "b", "d", 2);
+            PartitionProtocol.writeScan(out, "bb", "d", 10);
+            PartitionProtocol.writeScan(out, "e", "f", 10);
+        });
+
+        assertEquals(List.of("b", "ba"), List.copyOf(PartitionProtocol.readEntries(in).keySet()));
+        Map<String, String> second = PartitionProtocol.readEntries(in);
+        assertEquals(List.of("bb", "c"), List.copyOf(second.keySet()));
+        assertEquals("BB", second.get("bb"));
+        assertTrue(PartitionProtocol.readEntries(in).isEmpty());
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    void scansToTheEnd() throws IOException {
+
+        PATRICIATrie<String> trie = trie("a", "b", "c");
+        DataInputStream in = run(trie, out -> PartitionProtocol.writeScan(out, "aa", null, 10));
+
+        assertEquals(List.of("b", "c"), List.copyOf(PartitionProtocol.readEntries(in).keySet()));
+        assertEquals("A", trie.get("a"));
+    }
+
+    @Test
+    void removesKeys() throws IOException {
+
+        PATRICIATrie<String> trie = trie("a", "b");
+        DataInputStream in = run(trie, out -> {
+            PartitionProtocol.writeRemove(out, "a");
+            PartitionProtocol.writeRemove(out, "a");
+        });
+
+        assertTrue(PartitionProtocol.readFound(in));
+        assertFalse(PartitionProtocol.readFound(in));
+        assertEquals(1, trie.size());
+        assertNull(trie.get("a"));
+    }
+
+    @Test
+    void sendsNullValues() throws IOException {
+
+        PATRICIATrie<String> trie = trie("b");
+        DataInputStream in = run(trie, out -> {
+            PartitionProtocol.writePut(out, "a", null);
+            PartitionProtocol.writeScan(out, "", null, 10);
+        });
+
+        PartitionProtocol.readAck(in);
+        Map<String, String> entries = PartitionProtocol.readEntries(in);
+        assertEquals(List.of("a", "b"), List.copyOf(entries.keySet()));
+        assertNull(entries.get("a"));
+        assertEquals("B", entries.get("b"));
+        assertThrows(NullPointerException.class,
+                () -> PartitionProtocol.writePut(new DataOutputStream(new ByteArrayOutputStream()), null, "1"));
+    }
+
+    @Test
+    void findsKeysAtRanks() throws IOException {
+
+        PATRICIATrie<String> trie = trie("", "a", "b", "c");
+        DataInputStream in = run(trie, out -> PartitionProtocol.writeKeysAt(out, Arrays.asList(0L, 2L, 2L, 3L, 4L)));
+
+        assertEquals("", PartitionProtocol.readOptionalString(in));
+        assertEquals("b", PartitionProtocol.readOptionalString(in));
+        assertEquals("b", PartitionProtocol.readOptionalString(in));
+        assertEquals("c", PartitionProtocol.readOptionalString(in));
+        assertNull(PartitionProtocol.readOptionalString(in));
+    }
+}
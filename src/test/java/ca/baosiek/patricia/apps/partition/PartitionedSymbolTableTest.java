@@ -0,0 +1,179 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.apps.partition;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Runs against worker processes started on the same class path.
+ */
+class PartitionedSymbolTableTest {
+
+    private static final int WORKERS = 3;
+    private static int firstPort;
+    private static List<Process> processes;
+
+    @BeforeAll
+    static void launch() throws IOException {
+
+        firstPort = ThreadLocalRandom.current().nextInt(20000, 40000);
+        processes = PartitionedSymbolTable.launchWorkers(WORKERS, firstPort, "64m");
+    }
+
+    @AfterAll
+    static void shutdown() throws IOException {
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(firstPort, PartitionMap.even(WORKERS))) {
+            st.shutdownWorkers();
+        } finally {
+            processes.forEach(Process::destroy);
+        }
+    }
+
+    @Test
+    void rebalancesWithoutLosingKeys() throws IOException {
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(firstPort, PartitionMap.even(WORKERS))) {
+
+            // Skewed keys, all in the first worker's range, the empty key included
+            Map<String, String> oracle = new HashMap<>();
+            for (int i = 0; i < 20000; i++) oracle.put(" key" + i, String.valueOf(i));
+            oracle.put("", "empty");
+            st.putAll(oracle);
+
+            long[] before = st.sizes();
+            assertEquals(oracle.size(), before[0]);
+
+            st.rebalance();
+
+            long[] after = st.sizes();
+            assertEquals(oracle.size(), Arrays.stream(after).sum());
+            for (long size : after) assertTrue(Math.abs(size - oracle.size() / WORKERS) <= 1, Arrays.toString(after));
+
+            List<String> keys = new ArrayList<>(oracle.keySet());
+            List<String> expected = new ArrayList<>();
+            keys.forEach(key -> expected.add(oracle.get(key)));
+            assertEquals(expected, st.getAll(keys));
+
+            // Every bound is in its own worker's range, and a second rebalance moves nothing
+            for (int w = 0; w < WORKERS; w++) {
+                PartitionMap map = st.getPartitionMap();
+                assertEquals(w, map.route(map.lowerBound(w)));
+            }
+            st.rebalance();
+            assertArrayEquals(after, st.sizes());
+        }
+    }
+
+    @Test
+    void nullKeysAreSkippedInBatches() throws IOException {
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(firstPort, PartitionMap.even(WORKERS))) {
+
+            Map<String, String> entries = new HashMap<>();
+            entries.put(null, "ignored");
+            entries.put("a", "1");
+            st.putAll(entries);
+
+            assertEquals(Arrays.asList("1", null), st.getAll(Arrays.asList("a", null)));
+        }
+    }
+
+    @Test
+    void keepsNullValues() throws IOException {
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(firstPort, PartitionMap.even(WORKERS))) {
+
+            st.put("a", null);
+            st.put("b", "2");
+
+            assertNull(st.get("a"));
+            assertEquals("2", st.get("b"));
+            assertEquals(2, st.size());
+        }
+    }
+
+    /*
+    Empties the workers for the next test.
+     */
+    @AfterEach
+    void clear() throws IOException {
+
+        for (int w = 0; w < WORKERS; w++) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), firstPort + w);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+
+                PartitionProtocol.writeScan(out, "", null, Integer.MAX_VALUE);
+                out.flush();
+
+                Set<String> keys = PartitionProtocol.readEntries(in).keySet();
+                for (String key : keys) PartitionProtocol.writeRemove(out, key);
+                out.flush();
+                for (int i = 0; i < keys.size(); i++) PartitionProtocol.readFound(in);
+            }
+        }
+    }
+
+    @Test
+    void removeIfScansEveryWorkerInChunks() throws IOException {
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(firstPort, PartitionMap.even(WORKERS))) {
+
+            // More keys on a worker than a chunk holds
+            Map<String, String> entries = new HashMap<>();
+            for (int i = 0; i < 20000; i++) entries.put("k" + i, String.valueOf(i % 3));
+            st.putAll(entries);
+
+            long expected = entries.values().stream().filter("0"::equals).count();
+            assertEquals(expected, st.removeIf("0"::equals));
+            assertEquals(20000 - expected, st.size());
+            assertNull(st.get("k0"));
+            assertEquals("1", st.get("k1"));
+        }
+    }
+
+    @Test
+    void mergeRemovesKeyWhenRemappingReturnsNull() throws IOException {
+
+        try (PartitionedSymbolTable st = new PartitionedSymbolTable(firstPort, PartitionMap.even(WORKERS))) {
+
+            st.merge("a", "1", String::concat);
+            st.merge("a", "2", String::concat);
+            assertEquals("12", st.get("a"));
+
+            st.merge("a", "3", (current, value) -> null);
+            assertNull(st.get("a"));
+            assertEquals(0, st.size());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockCacheTest {
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+
+        assertThrows(IllegalArgumentException.class, () -> new ClockCache<String>(0));
+    }
+
+    @Test
+    void getsAdmittedValues() {
+
+        ClockCache<String> cache = new ClockCache<>(4);
+        cache.admit("a", "1");
+        cache.admit("b", "2");
+
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void nullValuesAreNotAdmitted() {
+
+        ClockCache<String> cache = new ClockCache<>(4);
+        cache.admit("a", null);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void referencedKeysGetASecondChance() {
+
+        ClockCache<String> cache = new ClockCache<>(3);
+        cache.admit("a", "1");
+        cache.admit("b", "2");
+        cache.admit("c", "3");
+        cache.get("a");
+
+        cache.admit("d", "4");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals("4", cache.get("d"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void updateWithNullRemovesKey() {
+
+        ClockCache<String> cache = new ClockCache<>(3);
+        cache.admit("a", "1");
+        cache.admit("b", "2");
+        cache.admit("c", "3");
+
+        cache.update("a", null);
+        cache.update("x", "ignored");
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("x"));
+        assertEquals("2", cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void neverReturnsStaleValuesNorExceedsCapacity() {
+
+        ClockCache<Integer> cache = new ClockCache<>(16);
+        Map<String, Integer> oracle = new HashMap<>();
+        Random random = new Random(26);
+
+        for (int i = 0; i < 100000; i++) {
+
+            String key = "k" + random.nextInt(64);
+            switch (random.nextInt(3)) {
+                case 0:
+                    oracle.put(key, i);
+                    cache.update(key, i);
+                    break;
+                case 1:
+                    oracle.remove(key);
+                    cache.update(key, null);
+                    break;
+                default:
+                    Integer cached = cache.get(key);
+                    if (cached == null) cache.admit(key, oracle.get(key));
+                    else assertEquals(oracle.get(key), cached);
+            }
+
+            assertTrue(cache.size() <= cache.capacity());
+        }
+    }
+}
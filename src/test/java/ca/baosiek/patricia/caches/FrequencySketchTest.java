@@ -0,0 +1,50 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsAndSaturates() {
+
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        assertEquals(0, sketch.frequency("a"));
+        for (int i = 0; i < 5; i++) sketch.increment("a");
+        assertTrue(sketch.frequency("a") >= 5);
+
+        for (int i = 0; i < 100; i++) sketch.increment("a");
+        assertEquals(15, sketch.frequency("a"));
+    }
+
+    @Test
+    void agesCountsOnceTheSampleIsReached() {
+
+        // capacity 8 means a sample of 80 additions
+        FrequencySketch sketch = new FrequencySketch(8);
+        for (int i = 0; i < 10; i++) sketch.increment("a");
+
+        int before = sketch.frequency("a");
+        for (int i = 0; i < 70; i++) sketch.increment("other" + i);
+
+        assertTrue(sketch.frequency("a") < before);
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.caches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void getsAdmittedValues() {
+
+        TinyLfuCache<String> cache = new TinyLfuCache<>(100);
+        cache.admit("a", "1");
+        cache.admit("b", "2");
+
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertNull(cache.get("c"));
+    }
+
+    @Test
+    void updateWithNullRemovesKey() {
+
+        TinyLfuCache<String> cache = new TinyLfuCache<>(100);
+        cache.admit("a", "1");
+        cache.update("a", null);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void frequentKeysSurviveAScan() {
+
+        TinyLfuCache<Integer> cache = new TinyLfuCache<>(100);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                String key = "hot" + i;
+                if (cache.get(key) == null) cache.admit(key, i);
+            }
+        }
+
+        // One-off keys, seen once each, fewer than the sketch ages its counts after
+        for (int i = 0; i < 500; i++) {
+            String key = "cold" + i;
+            if (cache.get(key) == null) cache.admit(key, i);
+        }
+
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot" + i) != null) hot++;
+        }
+
+        assertTrue(hot >= 45, "hot keys left: " + hot);
+        assertTrue(cache.size() <= cache.capacity());
+    }
+
+    @Test
+    void neverReturnsStaleValuesNorExceedsCapacity() {
+
+        TinyLfuCache<Integer> cache = new TinyLfuCache<>(32);
+        Map<String, Integer> oracle = new HashMap<>();
+        Random random = new Random(26);
+
+        for (int i = 0; i < 100000; i++) {
+
+            String key = "k" + random.nextInt(128);
+            switch (random.nextInt(3)) {
+                case 0:
+                    oracle.put(key, i);
+                    cache.update(key, i);
+                    break;
+                case 1:
+                    oracle.remove(key);
+                    cache.update(key, null);
+                    break;
+                default:
+                    Integer cached = cache.get(key);
+                    if (cached == null) cache.admit(key, oracle.get(key));
+                    else assertEquals(oracle.get(key), cached);
+            }
+
+            assertTrue(cache.size() <= cache.capacity());
+        }
+    }
+}
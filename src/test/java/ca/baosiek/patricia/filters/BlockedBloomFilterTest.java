@@ -0,0 +1,92 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.filters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockedBloomFilterTest {
+
+    private static Set<Long> randomHashes(int count, Random random) {
+
+        Set<Long> hashes = new HashSet<>();
+        while (hashes.size() < count) hashes.add(random.nextLong());
+        return hashes;
+    }
+
+    @Test
+    void neverMissesKeysAdded() {
+
+        BlockedBloomFilter filter = new BlockedBloomFilter(100000, 10);
+        Set<Long> hashes = randomHashes(100000, new Random(42));
+
+        hashes.forEach(filter::add);
+
+        for (long hash : hashes) assertTrue(filter.mightContain(hash));
+    }
+
+    @Test
+    void falsePositivesFallWithBitsPerKey() {
+
+        Random random = new Random(43);
+        Set<Long> hashes = randomHashes(100000, random);
+
+        double[] rates = new double[3];
+        int[] bitsPerKey = {6, 10, 16};
+
+        for (int i = 0; i < bitsPerKey.length; i++) {
+
+            BlockedBloomFilter filter = new BlockedBloomFilter(hashes.size(), bitsPerKey[i]);
+            hashes.forEach(filter::add);
+
+            int probes = 0;
+            int falsePositives = 0;
+            while (probes < 200000) {
+                long hash = random.nextLong();
+                if (hashes.contains(hash)) continue;
+                probes++;
+                if (filter.mightContain(hash)) falsePositives++;
+            }
+
+            rates[i] = (double) falsePositives / probes;
+        }
+
+        // About 1% at 10 bits per key
+        assertTrue(rates[1] > 0.005 && rates[1] < 0.015, "rate " + rates[1]);
+        assertTrue(rates[0] > rates[1] && rates[1] > rates[2], Arrays.toString(rates));
+    }
+
+    @Test
+    void sizedForExpectedKeys() {
+
+        BlockedBloomFilter filter = new BlockedBloomFilter(1000, 10);
+
+        assertEquals(1000, filter.capacity());
+        assertEquals(10, filter.bitsPerKey());
+
+        // 10000 bits, rounded up to blocks of 64 bytes
+        assertEquals(1280, filter.sizeInBytes());
+        assertEquals(64, new BlockedBloomFilter(0, 10).sizeInBytes());
+        assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter(1000, 0));
+    }
+}
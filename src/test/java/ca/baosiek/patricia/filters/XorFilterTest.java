@@ -0,0 +1,98 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.filters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XorFilterTest {
+
+    private static long[] randomHashes(int count, Random random) {
+
+        Set<Long> distinct = new HashSet<>();
+        while (distinct.size() < count) distinct.add(random.nextLong());
+        return distinct.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Test
+    void neverMissesKeysItWasBuiltFrom() {
+
+        for (int count : new int[]{1, 2, 10, 1000, 100000}) {
+
+            long[] hashes = randomHashes(count, new Random(count));
+            XorFilter filter = new XorFilter(hashes);
+
+            assertEquals(count, filter.keys());
+            for (long hash : hashes) assertTrue(filter.mightContain(hash), count + " keys");
+        }
+    }
+
+    @Test
+    void falsePositivesAboutOneIn256() {
+
+        Random random = new Random(44);
+        long[] hashes = randomHashes(100000, random);
+        Set<Long> keys = new HashSet<>();
+        for (long hash : hashes) keys.add(hash);
+
+        XorFilter filter = new XorFilter(hashes);
+
+        int probes = 0;
+        int falsePositives = 0;
+        while (probes < 500000) {
+            long hash = random.nextLong();
+            if (keys.contains(hash)) continue;
+            probes++;
+            if (filter.mightContain(hash)) falsePositives++;
+        }
+
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate > 0.5 / 256 && rate < 2d / 256, "rate " + rate);
+    }
+
+    @Test
+    void ignoresDuplicates() {
+
+        long[] hashes = randomHashes(1000, new Random(45));
+        long[] twice = new long[hashes.length * 2];
+        System.arraycopy(hashes, 0, twice, 0, hashes.length);
+        System.arraycopy(hashes, 0, twice, hashes.length, hashes.length);
+
+        XorFilter filter = new XorFilter(twice);
+
+        assertEquals(1000, filter.keys());
+        for (long hash : hashes) assertTrue(filter.mightContain(hash));
+    }
+
+    @Test
+    void takesAboutTenBitsPerKey() {
+
+        XorFilter filter = new XorFilter(randomHashes(100000, new Random(46)));
+
+        double bitsPerKey = filter.sizeInBytes() * 8d / filter.keys();
+        assertTrue(bitsPerKey > 9.8 && bitsPerKey < 10, "bits per key " + bitsPerKey);
+
+        XorFilter empty = new XorFilter(new long[0]);
+        assertEquals(0, empty.keys());
+        assertTrue(empty.sizeInBytes() > 0);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.caches.EvictionPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingSymbolTableTest {
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void matchesOracleThroughWrites(EvictionPolicy policy) {
+
+        CachingSymbolTable<Integer> st = new CachingSymbolTable<>(new PatriciaSymbolTable<>(), 16, policy);
+        Map<String, Integer> oracle = new HashMap<>();
+        Random random = new Random(26);
+
+        for (int i = 0; i < 50000; i++) {
+
+            String key = "k" + random.nextInt(100);
+            if (random.nextInt(4) == 0) {
+                st.put(key, i);
+                oracle.put(key, i);
+            } else {
+                assertEquals(oracle.get(key), st.get(key));
+            }
+        }
+
+        assertEquals(oracle.size(), st.size());
+        assertTrue(st.getHits() > 0);
+        assertEquals(1d, st.getHitRatio() + (double) st.getMisses() / (st.getHits() + st.getMisses()), 1e-9);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void removedKeysAreNotCached(EvictionPolicy policy) {
+
+        CachingSymbolTable<Integer> st = new CachingSymbolTable<>(new ARTSymbolTable<>(), 16, policy);
+        for (int i = 0; i < 10; i++) st.put("k" + i, i);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10; i++) assertEquals(i, st.get("k" + i));
+        }
+
+        assertEquals(5, st.removeIf(value -> value % 2 == 0));
+
+        assertEquals(5, st.size());
+        for (int i = 0; i < 10; i++) assertEquals(i % 2 == 0 ? null : i, st.get("k" + i));
+    }
+
+    @Test
+    void nullKeysAreMisses() {
+
+        CachingSymbolTable<Integer> st = new CachingSymbolTable<>(new HashMapSymbolTable<>(), 4, EvictionPolicy.CLOCK);
+
+        assertNull(st.get(null));
+        assertFalse(st.containsKey(null));
+    }
+
+    @Test
+    void timesLookupsOnlyWhenAsked() {
+
+        CachingSymbolTable<Integer> untimed = new CachingSymbolTable<>(new PatriciaSymbolTable<>(), 4, EvictionPolicy.CLOCK);
+        CachingSymbolTable<Integer> timed = new CachingSymbolTable<>(new PatriciaSymbolTable<>(), 4, EvictionPolicy.CLOCK, true);
+
+        for (CachingSymbolTable<Integer> st : new CachingSymbolTable[]{untimed, timed}) {
+            st.put("a", 1);
+            for (int i = 0; i < 1000; i++) st.get("a");
+            st.get("b");
+        }
+
+        assertEquals(0d, untimed.getAverageHitNanos());
+        assertEquals(0d, untimed.getAverageMissNanos());
+        assertTrue(timed.getAverageHitNanos() > 0d);
+        assertTrue(timed.getAverageMissNanos() > 0d);
+        assertEquals(timed.getHits(), untimed.getHits());
+    }
+
+    @Test
+    void factoryWrapsTables() {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createCachingSymbolTable(
+                SymbolTableFactory.createSymbolTable("1"), 8, EvictionPolicy.TINY_LFU);
+
+        assertTrue(st instanceof CachingSymbolTable);
+        assertNull(SymbolTableFactory.createCachingSymbolTable(null, 8, EvictionPolicy.CLOCK));
+    }
+
+    @Test
+    void factoryRefusesCaseInsensitiveTables() {
+
+        // The cache would keep "foo" and "Foo" apart while the table sees one key
+        assertNull(SymbolTableFactory.createCachingSymbolTable(
+                SymbolTableFactory.createCaseInsensitiveSymbolTable("1"), 8, EvictionPolicy.TINY_LFU));
+        assertNull(SymbolTableFactory.createCachingSymbolTable(
+                SymbolTableFactory.createFingerSymbolTable("1", true), 8, EvictionPolicy.CLOCK));
+        assertNotNull(SymbolTableFactory.createCachingSymbolTable(
+                SymbolTableFactory.createFingerSymbolTable("1", false), 8, EvictionPolicy.CLOCK));
+    }
+}
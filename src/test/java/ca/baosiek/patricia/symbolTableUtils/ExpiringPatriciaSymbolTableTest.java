@@ -0,0 +1,110 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringPatriciaSymbolTableTest {
+
+    @Test
+    void entriesExpireAfterTheirTtl() {
+
+        AtomicLong clock = new AtomicLong();
+        ExpiringPatriciaSymbolTable<String> st = new ExpiringPatriciaSymbolTable<>(1, TimeUnit.MILLISECONDS, clock::get);
+
+        st.put("short", "1", 10, TimeUnit.MILLISECONDS);
+        st.put("long", "2", 1, TimeUnit.HOURS);
+        st.put("forever", "3");
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(9));
+        assertEquals("1", st.get("short"));
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(10));
+        assertNull(st.get("short"));
+        assertEquals("2", st.get("long"));
+
+        clock.set(TimeUnit.HOURS.toNanos(2));
+        st.cleanUp();
+        assertNull(st.get("long"));
+        assertEquals("3", st.get("forever"));
+        assertEquals(1, st.size());
+    }
+
+    @Test
+    void putRenewsTtl() {
+
+        AtomicLong clock = new AtomicLong();
+        ExpiringPatriciaSymbolTable<String> st = new ExpiringPatriciaSymbolTable<>(1, TimeUnit.MILLISECONDS, clock::get);
+
+        st.put("a", "1", 10, TimeUnit.MILLISECONDS);
+        clock.set(TimeUnit.MILLISECONDS.toNanos(8));
+        st.put("a", "2", 10, TimeUnit.MILLISECONDS);
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(15));
+        st.cleanUp();
+        assertEquals("2", st.get("a"));
+    }
+
+    @Test
+    void mergeKeepsTtl() {
+
+        AtomicLong clock = new AtomicLong();
+        ExpiringPatriciaSymbolTable<Integer> st = new ExpiringPatriciaSymbolTable<>(1, TimeUnit.MILLISECONDS, clock::get);
+
+        st.put("a", 1, 10, TimeUnit.MILLISECONDS);
+        st.merge("a", 1, Integer::sum);
+        assertEquals(2, st.get("a"));
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(10));
+        assertNull(st.get("a"));
+
+        st.merge("a", 5, Integer::sum);
+        clock.set(TimeUnit.HOURS.toNanos(1));
+        st.cleanUp();
+        assertEquals(5, st.get("a"));
+
+        st.merge("a", 5, (current, value) -> null);
+        assertNull(st.get("a"));
+        assertEquals(0, st.size());
+    }
+
+    @Test
+    void removeIfSkipsExpiredEntries() {
+
+        AtomicLong clock = new AtomicLong();
+        ExpiringPatriciaSymbolTable<Integer> st = new ExpiringPatriciaSymbolTable<>(1, TimeUnit.MILLISECONDS, clock::get);
+
+        st.put("expired", 1, 10, TimeUnit.MILLISECONDS);
+        st.put("live", 1, 1, TimeUnit.HOURS);
+        st.put("kept", 2);
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(1, st.removeIf(value -> value == 1));
+        assertNull(st.get("live"));
+        assertEquals(2, st.get("kept"));
+
+        // The removed entry's deadline passing later finds nothing to expire
+        clock.set(TimeUnit.HOURS.toNanos(2));
+        st.cleanUp();
+        assertEquals(1, st.size());
+    }
+}
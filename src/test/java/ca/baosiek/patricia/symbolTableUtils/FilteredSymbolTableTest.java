@@ -0,0 +1,170 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.analysers.NormalizingStringAnalyser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Both filters, checked against a TreeMap. Filters may only turn misses into misses.
+ */
+class FilteredSymbolTableTest {
+
+    @ParameterizedTest
+    @EnumSource(FilteredSymbolTable.Filter.class)
+    void matchesOracle(FilteredSymbolTable.Filter type) {
+
+        FilteredSymbolTable<Integer> st = new FilteredSymbolTable<>(new PatriciaSymbolTable<>(), type, 10);
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(47);
+
+        for (int round = 0; round < 10; round++) {
+
+            for (int i = 0; i < 1000; i++) {
+                String key = SymbolTableFactoryTest.randomKey(random);
+                st.put(key, i);
+                oracle.put(key, i);
+            }
+            st.freeze();
+
+            for (int i = 0; i < 5000; i++) {
+                String key = SymbolTableFactoryTest.randomKey(random);
+                assertEquals(oracle.get(key), st.get(key), key);
+                assertEquals(oracle.containsKey(key), st.containsKey(key), key);
+            }
+
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 50; i++) keys.add(i % 10 == 0 ? null : SymbolTableFactoryTest.randomKey(random));
+            List<Integer> expected = new ArrayList<>();
+            for (String key : keys) expected.add(key == null ? null : oracle.get(key));
+            assertEquals(expected, st.getAll(keys));
+        }
+
+        assertEquals(oracle.size(), st.size());
+        assertTrue(st.getFiltered() > 0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FilteredSymbolTable.Filter.class)
+    void filtersMostMisses(FilteredSymbolTable.Filter type) {
+
+        FilteredSymbolTable<Integer> st = new FilteredSymbolTable<>(new PatriciaSymbolTable<>(), type, 10);
+        for (int i = 0; i < 50000; i++) st.put("key" + i, i);
+        st.freeze();
+
+        for (int i = 0; i < 50000; i++) assertEquals(i, st.get("key" + i));
+        for (int i = 0; i < 100000; i++) assertNull(st.get("miss" + i));
+
+        assertEquals(100000, st.getFiltered() + st.getFalsePositives());
+        assertTrue(st.getFalsePositiveRate() < 0.02, st.toString());
+        assertTrue(st.getBitsPerKey() > 8 && st.getBitsPerKey() < 16, st.toString());
+
+        st.resetStatistics();
+        assertEquals(0, st.getFiltered());
+        assertEquals(0d, st.getFalsePositiveRate());
+    }
+
+    @Test
+    void bloomGrowsWithTheTable() {
+
+        FilteredSymbolTable<Integer> st = new FilteredSymbolTable<>(new PatriciaSymbolTable<>(),
+                FilteredSymbolTable.Filter.BLOOM, 10);
+        long initialBytes = st.getFilterBytes();
+
+        // Never frozen, so every key goes through add and rebuilds
+        for (int i = 0; i < 20000; i++) {
+            st.put("key" + i, i);
+            st.merge("merged" + i, i, Integer::sum);
+        }
+
+        assertTrue(st.isFiltering());
+        assertTrue(st.getFilterBytes() > initialBytes);
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(i, st.get("key" + i));
+            assertEquals(i, st.get("merged" + i));
+        }
+    }
+
+    @Test
+    void xorStopsFilteringUntilFrozenAgain() {
+
+        FilteredSymbolTable<Integer> st = new FilteredSymbolTable<>(new PatriciaSymbolTable<>(),
+                FilteredSymbolTable.Filter.XOR, 10);
+        st.put("a", 1);
+        assertFalse(st.isFiltering());
+
+        st.freeze();
+        assertTrue(st.isFiltering());
+
+        // Keys already in the table keep the filter
+        st.put("a", 2);
+        st.merge("a", 1, Integer::sum);
+        assertTrue(st.isFiltering());
+        assertEquals(3, st.get("a"));
+
+        // A new key drops it, and is found without it
+        st.merge("b", 1, Integer::sum);
+        assertFalse(st.isFiltering());
+        assertEquals(0, st.getFilterBytes());
+        assertEquals(1, st.get("b"));
+
+        st.put("c", 1);
+        st.freeze();
+        assertTrue(st.isFiltering());
+        assertEquals(1, st.get("c"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(FilteredSymbolTable.Filter.class)
+    void removedKeysAreMisses(FilteredSymbolTable.Filter type) {
+
+        FilteredSymbolTable<Integer> st = new FilteredSymbolTable<>(new PatriciaSymbolTable<>(), type, 10);
+        for (int i = 0; i < 1000; i++) st.put("key" + i, i);
+        st.freeze();
+
+        assertEquals(500, st.removeIf(value -> value % 2 == 0));
+
+        assertEquals(500, st.size());
+        for (int i = 0; i < 1000; i++) assertEquals(i % 2 == 0 ? null : i, st.get("key" + i));
+
+        // Removed keys are only dropped from the filter by the next freeze
+        st.freeze();
+        st.resetStatistics();
+        for (int i = 0; i < 1000; i += 2) assertNull(st.get("key" + i));
+        assertTrue(st.getFiltered() > 400);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FilteredSymbolTable.Filter.class)
+    void filtersAsTheTrieSeesKeys(FilteredSymbolTable.Filter type) {
+
+        FilteredSymbolTable<Integer> st = new FilteredSymbolTable<>(
+                new PatriciaSymbolTable<>(new NormalizingStringAnalyser()), type, 10);
+        st.put("Example.COM", 1);
+        st.freeze();
+
+        assertEquals(1, st.get("example.com"));
+        assertEquals(1, st.get("EXAMPLE.com"));
+        assertNull(st.get(null));
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapSymbolTableTest {
+
+    @Test
+    void valuesAreDictionaryEncoded() {
+
+        try (OffHeapSymbolTable<String> st = new OffHeapSymbolTable<>()) {
+
+            st.put("a.com", new String("10.0.0.1"));
+            st.put("b.com", new String("10.0.0.1"));
+            st.put("c.com", "10.0.0.2");
+
+            assertSame(st.get("a.com"), st.get("b.com"));
+            assertEquals("10.0.0.2", st.get("c.com"));
+            assertNull(st.get("d.com"));
+            assertEquals(3, st.size());
+        }
+    }
+
+    @Test
+    void nullValuesAsPatriciaSymbolTable() {
+
+        SymbolTable<String> expected = new PatriciaSymbolTable<>();
+        try (OffHeapSymbolTable<String> st = new OffHeapSymbolTable<>()) {
+
+            for (SymbolTable<String> table : List.of(expected, st)) {
+                table.put("a", null);
+                table.put("b", "1");
+                table.put("b", null);
+            }
+
+            assertNull(st.get("a"));
+            assertNull(st.get("b"));
+            assertEquals(expected.containsKey("a"), st.containsKey("a"));
+            assertEquals(expected.size(), st.size());
+            assertEquals(2, st.removeIf(Objects::isNull));
+            assertEquals(0, st.size());
+        }
+    }
+}
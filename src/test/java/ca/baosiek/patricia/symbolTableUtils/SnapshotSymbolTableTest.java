@@ -0,0 +1,111 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import ca.baosiek.patricia.tries.PersistentPATRICIATrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotSymbolTableTest {
+
+    @Test
+    void snapshotsAndRollbacks() {
+
+        SnapshotSymbolTable<Integer> st = new SnapshotSymbolTable<>();
+        st.put("a", 1);
+        PersistentPATRICIATrie<Integer> snapshot = st.snapshot();
+
+        st.put("a", 2);
+        st.put("b", 3);
+        st.remove("a");
+
+        assertEquals(1, snapshot.get("a"));
+        assertNull(snapshot.get("b"));
+        assertNull(st.get("a"));
+        assertEquals(1, st.size());
+
+        st.rollback(snapshot);
+        assertEquals(1, st.get("a"));
+        assertNull(st.get("b"));
+    }
+
+    @Test
+    void readersSeeWholeBatches() throws InterruptedException {
+
+        SnapshotSymbolTable<Integer> st = new SnapshotSymbolTable<>();
+        AtomicBoolean done = new AtomicBoolean();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                Map<String, Integer> batch = new HashMap<>();
+                batch.put("first", i);
+                batch.put("second", i);
+                st.putAll(batch);
+            }
+            done.set(true);
+        });
+        writer.start();
+
+        while (!done.get()) {
+            PersistentPATRICIATrie<Integer> snapshot = st.snapshot();
+            assertEquals(snapshot.get("first"), snapshot.get("second"));
+        }
+        writer.join();
+
+        assertEquals(19999, st.get("first"));
+    }
+
+    @Test
+    void concurrentMergesLoseNoUpdate() throws InterruptedException {
+
+        SnapshotSymbolTable<Integer> st = new SnapshotSymbolTable<>();
+        Thread[] writers = new Thread[4];
+
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) st.merge("count", 1, Integer::sum);
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) writer.join();
+
+        assertEquals(40000, st.get("count"));
+    }
+
+    @Test
+    void mergesAndRemovalsPublishNewVersions() {
+
+        SnapshotSymbolTable<Integer> st = new SnapshotSymbolTable<>();
+        for (int i = 0; i < 10; i++) st.put("k" + i, i);
+        PersistentPATRICIATrie<Integer> snapshot = st.snapshot();
+
+        st.merge("k1", 0, (current, value) -> null);
+        assertEquals(4, st.removeIf(value -> value % 2 == 0 && value > 0));
+
+        assertNull(st.get("k1"));
+        assertNull(st.get("k2"));
+        assertEquals(0, st.get("k0"));
+        assertEquals(5, st.size());
+        assertEquals(10, snapshot.size());
+        assertEquals(1, snapshot.get("k1"));
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.symbolTableUtils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Every data structure the factory offers, checked against a TreeMap.
+ */
+class SymbolTableFactoryTest {
+
+    static String randomKey(Random random) {
+
+        // Short keys over a small alphabet, so many are prefixes of others
+        int length = random.nextInt(8);
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++) key.append("abc/.é".charAt(random.nextInt(6)));
+        return key.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1", "2", "3", "4"})
+    void putAndGetMatchOracle(String dataStructure) {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(29);
+
+        for (int i = 0; i < 20000; i++) {
+
+            String key = randomKey(random);
+            if (random.nextBoolean()) {
+                st.put(key, i);
+                oracle.put(key, i);
+            } else {
+                assertEquals(oracle.get(key), st.get(key), key);
+                assertEquals(oracle.containsKey(key), st.containsKey(key), key);
+            }
+        }
+
+        assertEquals(oracle.size(), st.size());
+        oracle.forEach((key, value) -> assertEquals(value, st.get(key), key));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1", "2", "3", "4"})
+    void batchesMatchOracle(String dataStructure) {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(29);
+
+        for (int round = 0; round < 200; round++) {
+
+            Map<String, Integer> entries = new HashMap<>();
+            for (int i = random.nextInt(20); i > 0; i--) entries.put(randomKey(random), random.nextInt(1000));
+            st.putAll(entries);
+            oracle.putAll(entries);
+
+            List<String> keys = new ArrayList<>();
+            for (int i = random.nextInt(20); i > 0; i--) keys.add(randomKey(random));
+            List<Integer> expected = new ArrayList<>();
+            for (String key : keys) expected.add(oracle.get(key));
+
+            assertEquals(expected, st.getAll(keys));
+            assertEquals(oracle.size(), st.size());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1", "2", "3", "4"})
+    void nullKeysAreMissesInBatches(String dataStructure) {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        st.put("a", 1);
+
+        assertEquals(Arrays.asList(1, null, null), st.getAll(Arrays.asList("a", null, "b")));
+
+        Map<String, Integer> entries = new HashMap<>();
+        entries.put(null, 2);
+        entries.put("b", 3);
+        st.putAll(entries);
+
+        assertEquals(2, st.size());
+        assertEquals(3, st.get("b"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1", "2", "3", "4"})
+    void removeIfMatchesOracle(String dataStructure) {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(31);
+
+        for (int round = 0; round < 5; round++) {
+
+            for (int i = 0; i < 5000; i++) {
+                String key = randomKey(random);
+                int value = random.nextInt(10);
+                st.put(key, value);
+                oracle.put(key, value);
+            }
+
+            int removedValue = round;
+            long expected = oracle.values().stream().filter(value -> value == removedValue).count();
+            oracle.values().removeIf(value -> value == removedValue);
+
+            assertEquals(expected, st.removeIf(value -> value == removedValue));
+            assertEquals(oracle.size(), st.size());
+            oracle.forEach((key, value) -> assertEquals(value, st.get(key), key));
+        }
+
+        // Keys removed are misses
+        for (int i = 0; i < 5000; i++) {
+            String key = randomKey(random);
+            assertEquals(oracle.get(key), st.get(key), key);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1", "2", "3", "4"})
+    void mergeMatchesOracle(String dataStructure) {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(37);
+        StringBuilder buffer = new StringBuilder();
+
+        for (int i = 0; i < 20000; i++) {
+
+            String key = randomKey(random);
+            buffer.setLength(0);
+            buffer.append(key);
+
+            st.merge(buffer, 1, Integer::sum);
+            oracle.merge(key, 1, Integer::sum);
+        }
+
+        assertEquals(oracle.size(), st.size());
+        oracle.forEach((key, value) -> assertEquals(value, st.get(key), key));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1", "2", "3", "4"})
+    void mergeRemovesKeyWhenRemappingReturnsNull(String dataStructure) {
+
+        SymbolTable<Integer> st = SymbolTableFactory.createSymbolTable(dataStructure);
+        st.put("a", 1);
+        st.put("ab", 2);
+
+        st.merge("a", 1, (current, value) -> null);
+
+        assertNull(st.get("a"));
+        assertEquals(2, st.get("ab"));
+        assertEquals(1, st.size());
+    }
+}
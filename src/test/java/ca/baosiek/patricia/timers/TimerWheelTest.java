@@ -0,0 +1,135 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.timers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void rejectsNonPositiveTick() {
+
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(0, 0));
+    }
+
+    @Test
+    void expiresEntriesOnTime() {
+
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        ExpiringValue<String> soon = new ExpiringValue<>("soon", "1", 10);
+        ExpiringValue<String> later = new ExpiringValue<>("later", "2", 5000);
+        wheel.schedule(soon);
+        wheel.schedule(later);
+
+        List<String> expired = new ArrayList<>();
+        assertEquals(0, wheel.advance(9, Integer.MAX_VALUE, e -> expired.add(e.getKey())));
+        assertEquals(1, wheel.advance(10, Integer.MAX_VALUE, e -> expired.add(e.getKey())));
+        assertEquals(List.of("soon"), expired);
+        assertEquals(1, wheel.size());
+
+        assertEquals(1, wheel.advance(5000, Integer.MAX_VALUE, e -> expired.add(e.getKey())));
+        assertEquals(List.of("soon", "later"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void descheduledEntriesNeverExpire() {
+
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        ExpiringValue<String> entry = new ExpiringValue<>("a", "1", 100);
+        wheel.schedule(entry);
+        wheel.deschedule(entry);
+
+        assertFalse(entry.isScheduled());
+        assertEquals(0, wheel.size());
+        assertEquals(0, wheel.advance(1000, Integer.MAX_VALUE, e -> fail()));
+    }
+
+    @Test
+    void schedulesOnTimeAfterBudgetRunsOutMidTick() {
+
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+
+        // Both sit at level 1 until the cascade at tick 64
+        wheel.schedule(new ExpiringValue<>("a", "1", 64));
+        wheel.schedule(new ExpiringValue<>("b", "2", 64));
+
+        Set<String> expired = new HashSet<>();
+        assertEquals(1, wheel.advance(64, 1, e -> expired.add(e.getKey())));
+        assertEquals(1, wheel.size());
+
+        // Tick 64 is cascaded but not yet processed
+        wheel.schedule(new ExpiringValue<>("c", "3", 69));
+
+        assertEquals(2, wheel.advance(69, Integer.MAX_VALUE, e -> expired.add(e.getKey())));
+        assertEquals(Set.of("a", "b", "c"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void matchesBruteForceWithBudgets() {
+
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 0);
+        List<ExpiringValue<Integer>> pending = new ArrayList<>();
+        Random random = new Random(27);
+        long now = 0;
+
+        for (int i = 0; i < 20000; i++) {
+
+            int action = random.nextInt(10);
+            if (action < 6) {
+
+                // Mostly near expiries, some far enough for the upper levels
+                long ttl = random.nextInt(4) == 0 ? random.nextInt(10_000_000) : random.nextInt(2000);
+                ExpiringValue<Integer> entry = new ExpiringValue<>("k" + i, i, now + ttl);
+                wheel.schedule(entry);
+                pending.add(entry);
+
+            } else if (action < 7 && !pending.isEmpty()) {
+
+                ExpiringValue<Integer> entry = pending.remove(random.nextInt(pending.size()));
+                wheel.deschedule(entry);
+
+            } else {
+
+                now += random.nextInt(500);
+                long at = now;
+                wheel.advance(now, 1 + random.nextInt(5), entry -> {
+                    assertTrue(entry.getExpiresAt() <= at, "expired early: " + entry);
+                    assertTrue(pending.remove(entry));
+                });
+            }
+
+            assertEquals(pending.size(), wheel.size());
+        }
+
+        // Without budget every due entry goes, the others stay
+        now += 1000;
+        long at = now;
+        wheel.advance(now, Integer.MAX_VALUE, entry -> assertTrue(pending.remove(entry)));
+        for (ExpiringValue<Integer> entry : pending) assertTrue(entry.getExpiresAt() > at - 10);
+        assertEquals(pending.size(), wheel.size());
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRadixTreeTest {
+
+    @Test
+    void emptyTree() {
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+
+        assertNull(art.get("a"));
+        assertNull(art.get(""));
+        assertNull(art.get(null));
+        assertFalse(art.put(null, 1));
+        assertEquals(0, art.size());
+    }
+
+    @Test
+    void keysPrefixingOtherKeys() {
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+        String[] keys = {"", "a", "ab", "abc", "abcd", "abd", "b"};
+        for (int i = 0; i < keys.length; i++) art.put(keys[i], i);
+
+        for (int i = 0; i < keys.length; i++) assertEquals(i, art.get(keys[i]), keys[i]);
+        assertNull(art.get("abcde"));
+        assertNull(art.get("ac"));
+        assertEquals(keys.length, art.size());
+    }
+
+    @Test
+    void nodesGrowThroughEverySize() {
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+
+        // 300 children under one prefix go through nodes of 4, 16, 48 and 256
+        for (int c = 0; c < 300; c++) {
+            art.put("prefix" + (char) c, c);
+            for (int d = 0; d <= c; d += 37) assertEquals(d, art.get("prefix" + (char) d));
+        }
+
+        assertEquals(300, art.size());
+        assertNull(art.get("prefix"));
+        assertNull(art.get("prefi"));
+    }
+
+    @Test
+    void updatesKeepSize() {
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+        art.put("key", 1);
+        art.put("key", 2);
+
+        assertEquals(2, art.get("key"));
+        assertEquals(1, art.size());
+    }
+
+    @Test
+    void matchesTreeMap() {
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(31);
+        String alphabet = "ab\u0000ÿĀ一";
+
+        for (int i = 0; i < 50000; i++) {
+
+            StringBuilder key = new StringBuilder();
+            for (int length = random.nextInt(12); length > 0; length--) {
+                key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            if (random.nextBoolean()) {
+                art.put(key.toString(), i);
+                oracle.put(key.toString(), i);
+            } else {
+                assertEquals(oracle.get(key.toString()), art.get(key.toString()));
+            }
+        }
+
+        assertEquals(oracle.size(), art.size());
+        oracle.forEach((key, value) -> assertEquals(value, art.get(key)));
+    }
+
+    @Test
+    void removalsMatchTreeMap() {
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(41);
+
+        // Few distinct keys, so nodes fill up past 48 children and empty again
+        for (int i = 0; i < 50000; i++) {
+
+            String key = "p" + (char) random.nextInt(100) + (random.nextBoolean() ? "" : "s");
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    art.put(key, i);
+                    oracle.put(key, i);
+                    break;
+                case 1:
+                    assertEquals(oracle.remove(key), art.remove(key));
+                    break;
+                default:
+                    assertEquals(oracle.get(key), art.get(key));
+            }
+            assertEquals(oracle.size(), art.size());
+        }
+
+        oracle.forEach((key, value) -> assertEquals(value, art.get(key)));
+        oracle.keySet().forEach(art::remove);
+        assertEquals(0, art.size());
+        assertNull(art.get("p"));
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IPPrefixTrieTest {
+
+    @Test
+    void matchesCidrPrefixes() {
+
+        IPPrefixTrie<String> trie = new IPPrefixTrie<>(IPPrefixTrie.IPV4);
+        trie.put("0.0.0.0/0", "default");
+        trie.put("10.0.0.0/8", "ten");
+        trie.put("10.1.0.0/16", "ten-one");
+        trie.put("10.1.2.3", "host");
+
+        assertEquals("default", trie.longestPrefixMatch(0x0B000000));
+        assertEquals("ten", trie.longestPrefixMatch(0x0A020000));
+        assertEquals("ten-one", trie.longestPrefixMatch(0x0A010203 + 1));
+        assertEquals("host", trie.longestPrefixMatch(0x0A010203));
+        assertEquals("ten", trie.get(0x0A000000, 8));
+        assertNull(trie.get(0x0A000000, 9));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void rejectsNullValues() {
+
+        IPPrefixTrie<String> trie = new IPPrefixTrie<>(IPPrefixTrie.IPV4);
+
+        assertThrows(NullPointerException.class, () -> trie.put(0x0A000000, 8, null));
+        assertEquals(0, trie.size());
+        assertNull(trie.longestPrefixMatch(0x0A000000));
+    }
+
+    @Test
+    void rejectsWrongAddressFamily() {
+
+        IPPrefixTrie<String> trie = new IPPrefixTrie<>(IPPrefixTrie.IPV6);
+
+        assertThrows(IllegalStateException.class, () -> trie.put(1, 8, "v4"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put("10.0.0.0/8", "v4"));
+        assertThrows(IllegalArgumentException.class, () -> new IPPrefixTrie<String>(64));
+    }
+
+    @Test
+    void parsesLiteralsOnly() {
+
+        IPPrefixTrie<String> v4 = new IPPrefixTrie<>(IPPrefixTrie.IPV4);
+        IPPrefixTrie<String> v6 = new IPPrefixTrie<>(IPPrefixTrie.IPV6);
+
+        // Names that would otherwise be looked up
+        for (String cidr : List.of("localhost", "example.com/8", "dead.beef/16", "1.2.3/24", "256.0.0.0/8",
+                "1.2.3.4.5", "+1.2.3.4", "١.2.3.4")) {
+            assertThrows(IllegalArgumentException.class, () -> v4.put(cidr, "v4"), cidr);
+        }
+        for (String cidr : List.of("localhost", "dead.beef/16", "fe80::1%lo/64", "[::1]", "::ffff:10.0.0.0/104",
+                "2001:db8:::/32")) {
+            assertThrows(IllegalArgumentException.class, () -> v6.put(cidr, "v6"), cidr);
+        }
+        assertEquals(0, v4.size());
+        assertEquals(0, v6.size());
+
+        v6.put("2001:DB8::/32", "doc");
+        v6.put("::1.2.3.4", "compatible");
+        assertEquals("doc", v6.get(0x20010DB800000000L, 0L, 32));
+        assertEquals("compatible", v6.get(0L, 0x01020304L, 128));
+    }
+
+    @Test
+    void getRejectsInvalidPrefixLengths() {
+
+        IPPrefixTrie<String> v4 = new IPPrefixTrie<>(IPPrefixTrie.IPV4);
+        IPPrefixTrie<String> v6 = new IPPrefixTrie<>(IPPrefixTrie.IPV6);
+        v4.put(0, 0, "default");
+        v6.put(0L, 0L, 128, "unspecified");
+
+        assertEquals("default", v4.get(0, 0));
+        assertNull(v4.get(0, 32));
+        assertThrows(IllegalArgumentException.class, () -> v4.get(0, 33));
+        assertThrows(IllegalArgumentException.class, () -> v4.get(0, -1));
+        assertEquals("unspecified", v6.get(0L, 0L, 128));
+        assertThrows(IllegalArgumentException.class, () -> v6.get(0L, 0L, 129));
+    }
+
+    @Test
+    void ipv4MatchesBruteForce() {
+
+        IPPrefixTrie<Integer> trie = new IPPrefixTrie<>(IPPrefixTrie.IPV4);
+        List<long[]> prefixes = new ArrayList<>(); // high, low, length, value
+        Random random = new Random(32);
+
+        for (int i = 0; i < 3000; i++) {
+
+            // Few distinct top bits, so prefixes nest and share stride blocks
+            int address = (random.nextInt(4) << 28) | random.nextInt(1 << 20) << 8 | random.nextInt(256);
+            int length = random.nextInt(33);
+            trie.put(address, length, i);
+            prefixes.add(new long[]{(address & 0xFFFFFFFFL) << 32, 0L, length, i});
+
+            // Lookups between puts, so every stride update is checked
+            if (i % 10 == 0) {
+                for (int j = 0; j < 20; j++) {
+                    int probe = (random.nextInt(4) << 28) | random.nextInt(1 << 28);
+                    assertEquals(bruteForce(prefixes, (probe & 0xFFFFFFFFL) << 32, 0L), trie.longestPrefixMatch(probe));
+                }
+            }
+        }
+    }
+
+    @Test
+    void ipv6MatchesBruteForce() {
+
+        IPPrefixTrie<Integer> trie = new IPPrefixTrie<>(IPPrefixTrie.IPV6);
+        List<long[]> prefixes = new ArrayList<>();
+        Random random = new Random(32);
+
+        for (int i = 0; i < 2000; i++) {
+
+            long high = 0x2001_0db8_0000_0000L | (random.nextLong() & 0x0000_0000_00ff_ffffL);
+            long low = random.nextInt(16);
+            int length = random.nextBoolean() ? 16 + random.nextInt(49) : random.nextInt(129);
+            trie.put(high, low, length, i);
+            prefixes.add(new long[]{high, low, length, i});
+        }
+
+        for (int j = 0; j < 5000; j++) {
+            long high = 0x2001_0db8_0000_0000L | (random.nextLong() & 0x0000_0000_00ff_ffffL);
+            long low = random.nextInt(16);
+            assertEquals(bruteForce(prefixes, high, low), trie.longestPrefixMatch(high, low));
+        }
+    }
+
+    /*
+    Latest value of the longest prefix containing the address.
+     */
+    private static Integer bruteForce(List<long[]> prefixes, long high, long low) {
+
+        Integer best = null;
+        long bestLength = -1;
+
+        for (long[] prefix : prefixes) {
+            int length = (int) prefix[2];
+            if (length >= bestLength && matches(prefix[0], prefix[1], high, low, length)) {
+                best = (int) prefix[3];
+                bestLength = length;
+            }
+        }
+
+        return best;
+    }
+
+    private static boolean matches(long high1, long low1, long high2, long low2, int length) {
+
+        for (int bit = 0; bit < length; bit++) {
+            long a = bit < 64 ? high1 << bit : low1 << (bit - 64);
+            long b = bit < 64 ? high2 << bit : low2 << (bit - 64);
+            if ((a < 0) != (b < 0)) return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapPATRICIATrieTest {
+
+    @Test
+    void emptyTrie() {
+
+        try (OffHeapPATRICIATrie trie = new OffHeapPATRICIATrie()) {
+
+            assertEquals(OffHeapPATRICIATrie.NO_VALUE, trie.get("a"));
+            assertEquals(OffHeapPATRICIATrie.NO_VALUE, trie.get(""));
+            assertFalse(trie.put(null, 1));
+            assertEquals(0, trie.size());
+        }
+    }
+
+    @Test
+    void emptyKeyLivesAtRoot() {
+
+        try (OffHeapPATRICIATrie trie = new OffHeapPATRICIATrie()) {
+
+            trie.put("", 7);
+            trie.put("a", 8);
+            trie.put("", 9);
+
+            assertEquals(9, trie.get(""));
+            assertEquals(8, trie.get("a"));
+            assertEquals(2, trie.size());
+        }
+    }
+
+    @Test
+    void rejectsNoValue() {
+
+        try (OffHeapPATRICIATrie trie = new OffHeapPATRICIATrie()) {
+            assertThrows(IllegalArgumentException.class, () -> trie.put("a", OffHeapPATRICIATrie.NO_VALUE));
+        }
+    }
+
+    @Test
+    void closedTrieCannotBeUsed() {
+
+        OffHeapPATRICIATrie trie = new OffHeapPATRICIATrie();
+        trie.put("a", 1);
+        trie.close();
+
+        assertThrows(IllegalStateException.class, () -> trie.get("a"));
+        assertThrows(IllegalStateException.class, () -> trie.put("b", 2));
+    }
+
+    @Test
+    void matchesTreeMapWhileBuffersGrow() {
+
+        try (OffHeapPATRICIATrie trie = new OffHeapPATRICIATrie()) {
+
+            Map<String, Integer> oracle = new TreeMap<>();
+            Random random = new Random(38);
+            long bytes = trie.offHeapBytes();
+
+            for (int i = 0; i < 100000; i++) {
+
+                StringBuilder key = new StringBuilder();
+                for (int length = random.nextInt(16); length > 0; length--) {
+                    key.append("ab.ĀЖ一".charAt(random.nextInt(6)));
+                }
+
+                if (random.nextBoolean()) {
+                    trie.put(key.toString(), i);
+                    oracle.put(key.toString(), i);
+                } else {
+                    int expected = oracle.getOrDefault(key.toString(), OffHeapPATRICIATrie.NO_VALUE);
+                    assertEquals(expected, trie.get(key.toString()));
+                }
+            }
+
+            assertEquals(oracle.size(), trie.size());
+            oracle.forEach((key, value) -> assertEquals(value, trie.get(key), key));
+            assertTrue(trie.offHeapBytes() > bytes);
+        }
+    }
+
+    @Test
+    void removedKeysCanComeBack() {
+
+        try (OffHeapPATRICIATrie trie = new OffHeapPATRICIATrie()) {
+
+            trie.put("a", 1);
+            trie.put("ab", 2);
+
+            assertEquals(1, trie.remove("a"));
+            assertEquals(OffHeapPATRICIATrie.NO_VALUE, trie.remove("a"));
+            assertEquals(OffHeapPATRICIATrie.NO_VALUE, trie.remove("b"));
+            assertEquals(OffHeapPATRICIATrie.NO_VALUE, trie.get("a"));
+            assertEquals(2, trie.get("ab"));
+            assertEquals(1, trie.size());
+
+            trie.put("a", 3);
+            assertEquals(3, trie.get("a"));
+            assertEquals(2, trie.size());
+        }
+    }
+}
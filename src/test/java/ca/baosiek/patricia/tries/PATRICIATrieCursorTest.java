@@ -0,0 +1,135 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PATRICIATrieCursorTest {
+
+    private final StringAnalyser analyser = new StringAnalyser();
+
+    private static String randomKey(Random random) {
+
+        StringBuilder key = new StringBuilder();
+        for (int length = random.nextInt(10); length > 0; length--) key.append("abc/.é".charAt(random.nextInt(6)));
+        return key.toString();
+    }
+
+    @Test
+    void matchesOracleOnRandomKeys() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        PATRICIATrieCursor<Integer> cursor = trie.cursor();
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(41);
+
+        for (int i = 0; i < 50000; i++) {
+
+            String key = randomKey(random);
+            if (random.nextBoolean()) {
+                assertTrue(cursor.put(key, i));
+                oracle.put(key, i);
+            } else {
+                assertEquals(oracle.get(key), cursor.get(key), key);
+                assertEquals(oracle.containsKey(key), cursor.containsKey(key), key);
+            }
+        }
+
+        assertEquals(oracle.size(), trie.size());
+        oracle.forEach((key, value) -> assertEquals(value, trie.get(key), key));
+    }
+
+    @Test
+    void followsWritesMadeAroundIt() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        PATRICIATrieCursor<Integer> cursor = trie.cursor();
+        Map<String, Integer> oracle = new TreeMap<>();
+        Random random = new Random(43);
+
+        for (int i = 0; i < 50000; i++) {
+
+            String key = randomKey(random);
+            switch (random.nextInt(4)) {
+                case 0:
+                    trie.put(key, i);
+                    oracle.put(key, i);
+                    break;
+                case 1:
+                    assertEquals(oracle.remove(key), trie.remove(key), key);
+                    break;
+                case 2:
+                    cursor.put(key, i);
+                    oracle.put(key, i);
+                    break;
+                default:
+                    assertEquals(oracle.get(key), cursor.get(key), key);
+            }
+        }
+
+        assertEquals(oracle.size(), trie.size());
+        oracle.forEach((key, value) -> assertEquals(value, cursor.get(key), key));
+    }
+
+    @Test
+    void sortedKeysVisitFewerNodes() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) keys.add(String.format("http://www.site%05d.com/page", i));
+
+        PATRICIATrieCursor<Integer> cursor = trie.cursor();
+        for (int i = 0; i < keys.size(); i++) cursor.put(keys.get(i), i);
+
+        long fullDescents = 0;
+        for (String key : keys) {
+            PATRICIATrieCursor<Integer> fresh = trie.cursor();
+            fresh.get(key);
+            fullDescents += fresh.nodesVisited();
+        }
+
+        PATRICIATrieCursor<Integer> finger = trie.cursor();
+        for (int i = 0; i < keys.size(); i++) assertEquals(i, finger.get(keys.get(i)));
+
+        assertTrue(finger.nodesVisited() < fullDescents / 2, finger.nodesVisited() + " vs " + fullDescents);
+    }
+
+    @Test
+    void emptyAndNullKeys() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        PATRICIATrieCursor<Integer> cursor = trie.cursor();
+
+        assertFalse(cursor.put(null, 1));
+        assertNull(cursor.get(null));
+        assertNull(cursor.get(""));
+
+        cursor.put("a", 1);
+        cursor.put("", 0);
+        cursor.put("ab", 2);
+
+        assertEquals(0, cursor.get(""));
+        assertEquals(1, cursor.get("a"));
+        assertEquals(2, cursor.get("ab"));
+        assertEquals(3, trie.size());
+    }
+}
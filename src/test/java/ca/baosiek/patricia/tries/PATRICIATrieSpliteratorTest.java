@@ -0,0 +1,175 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PATRICIATrieSpliteratorTest {
+
+    private final StringAnalyser analyser = new StringAnalyser();
+
+    private TreeMap<String, Integer> fill(PATRICIATrie<Integer> trie, int keys, long seed) {
+
+        TreeMap<String, Integer> oracle = new TreeMap<>(analyser::compareStrings);
+        Random random = new Random(seed);
+
+        for (int i = 0; i < keys; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int length = random.nextInt(10); length > 0; length--) key.append((char) ('a' + random.nextInt(4)));
+            trie.put(key.toString(), i);
+            oracle.put(key.toString(), i);
+        }
+
+        return oracle;
+    }
+
+    @Test
+    void emptyTrie() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+
+        assertEquals(0, trie.entryStream().count());
+        assertEquals(0, trie.entryStream().parallel().count());
+        assertNull(trie.spliterator().trySplit());
+    }
+
+    @Test
+    void walksEntriesInKeyOrder() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        TreeMap<String, Integer> oracle = fill(trie, 5000, 35);
+
+        assertEquals(new ArrayList<>(oracle.entrySet()), trie.entryStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void emptyKeyComesFirst() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        trie.put("b", 2);
+        trie.put("", 0);
+        trie.put("a", 1);
+
+        assertEquals(List.of("", "a", "b"), trie.entryStream().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
+
+    @Test
+    void nullValueForEmptyKeyIsNoEntry() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        trie.put("", null);
+        trie.put("", null);
+        trie.put("a", 1);
+        assertEquals(1, trie.size());
+
+        Spliterator<Map.Entry<String, Integer>> spliterator = trie.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(1, spliterator.getExactSizeIfKnown());
+        assertEquals(1, trie.entryStream().count());
+        assertEquals(1, trie.entryStream().filter(e -> true).count());
+
+        trie.put("", 0);
+        trie.put("", null);
+        assertEquals(1, trie.size());
+        assertEquals(List.of("a"), trie.entryStream().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
+
+    @Test
+    void skipsRemovedKeys() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        TreeMap<String, Integer> oracle = fill(trie, 2000, 35);
+
+        Random random = new Random(35);
+        for (String key : new ArrayList<>(oracle.keySet())) {
+            if (random.nextBoolean()) {
+                trie.remove(key);
+                oracle.remove(key);
+            }
+        }
+
+        assertEquals(new ArrayList<>(oracle.entrySet()), trie.entryStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void splitsCoverEveryEntryOnce() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        TreeMap<String, Integer> oracle = fill(trie, 5000, 35);
+
+        Spliterator<Map.Entry<String, Integer>> spliterator = trie.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SORTED));
+        assertEquals(oracle.size(), spliterator.getExactSizeIfKnown());
+
+        // Splitting recursively, prefixes first, keeps key order
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        split(spliterator, entries, 0);
+
+        assertEquals(new ArrayList<>(oracle.entrySet()), entries);
+    }
+
+    @Test
+    void parallelStreamsSeeEveryEntry() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        TreeMap<String, Integer> oracle = fill(trie, 20000, 35);
+
+        assertEquals(oracle.values().stream().mapToLong(Integer::longValue).sum(),
+                trie.entryStream().parallel().mapToLong(Map.Entry::getValue).sum());
+        assertEquals(new ArrayList<>(oracle.keySet()),
+                trie.entryStream().parallel().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
+
+    @Test
+    void walksFromAnyKey() {
+
+        PATRICIATrie<Integer> trie = new PATRICIATrie<>(analyser);
+        TreeMap<String, Integer> oracle = fill(trie, 3000, 35);
+        Random random = new Random(39);
+
+        for (int i = 0; i < 500; i++) {
+
+            // In the trie or not, prefixes of keys and keys past the last one included
+            StringBuilder from = new StringBuilder();
+            for (int length = random.nextInt(11); length > 0; length--) from.append((char) ('a' + random.nextInt(5)));
+
+            assertEquals(new ArrayList<>(oracle.tailMap(from.toString(), true).entrySet()),
+                    trie.entryStream(from.toString()).collect(Collectors.toList()), from.toString());
+        }
+
+        assertEquals(0, new PATRICIATrie<Integer>(analyser).entryStream("a").count());
+    }
+
+    private static void split(Spliterator<Map.Entry<String, Integer>> spliterator,
+                              List<Map.Entry<String, Integer>> entries, int depth) {
+
+        Spliterator<Map.Entry<String, Integer>> prefix = depth < 8 ? spliterator.trySplit() : null;
+        if (prefix != null) {
+            assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+            split(prefix, entries, depth + 1);
+            split(spliterator, entries, depth + 1);
+        } else {
+            spliterator.forEachRemaining(entries::add);
+        }
+    }
+}
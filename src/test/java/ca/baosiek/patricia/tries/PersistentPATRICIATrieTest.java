@@ -0,0 +1,123 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentPATRICIATrieTest {
+
+    @Test
+    void emptyTrie() {
+
+        PersistentPATRICIATrie<Integer> trie = new PersistentPATRICIATrie<>(new StringAnalyser());
+
+        assertNull(trie.get("a"));
+        assertNull(trie.get(null));
+        assertSame(trie, trie.remove("a"));
+        assertSame(trie, trie.put(null, 1));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void putLeavesOldVersionsUnchanged() {
+
+        PersistentPATRICIATrie<Integer> empty = new PersistentPATRICIATrie<>(new StringAnalyser());
+        PersistentPATRICIATrie<Integer> one = empty.put("a", 1);
+        PersistentPATRICIATrie<Integer> two = one.put("a", 2).put("ab", 3);
+
+        assertNull(empty.get("a"));
+        assertEquals(1, one.get("a"));
+        assertNull(one.get("ab"));
+        assertEquals(2, two.get("a"));
+        assertEquals(3, two.get("ab"));
+        assertEquals(1, one.size());
+        assertEquals(2, two.size());
+    }
+
+    @Test
+    void unchangedValueKeepsVersion() {
+
+        Integer value = 1;
+        PersistentPATRICIATrie<Integer> trie = new PersistentPATRICIATrie<Integer>(new StringAnalyser()).put("a", value);
+
+        assertSame(trie, trie.put("a", value));
+    }
+
+    @Test
+    void everyVersionMatchesItsOracle() {
+
+        Random random = new Random(36);
+        PersistentPATRICIATrie<Integer> trie = new PersistentPATRICIATrie<>(new StringAnalyser());
+        TreeMap<String, Integer> oracle = new TreeMap<>();
+
+        List<PersistentPATRICIATrie<Integer>> versions = new ArrayList<>();
+        List<Map<String, Integer>> oracles = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+
+            StringBuilder key = new StringBuilder();
+            for (int length = random.nextInt(8); length > 0; length--) key.append((char) ('a' + random.nextInt(3)));
+
+            if (random.nextInt(3) == 0) {
+                trie = trie.remove(key.toString());
+                oracle.remove(key.toString());
+            } else {
+                trie = trie.put(key.toString(), i);
+                oracle.put(key.toString(), i);
+            }
+
+            if (i % 100 == 0) {
+                versions.add(trie);
+                oracles.add(new TreeMap<>(oracle));
+            }
+        }
+
+        for (int v = 0; v < versions.size(); v++) {
+
+            PersistentPATRICIATrie<Integer> version = versions.get(v);
+            Map<String, Integer> expected = oracles.get(v);
+            assertEquals(expected.size(), version.size());
+
+            // Keys of the latest version too, so removed keys are checked as well
+            for (String key : oracle.keySet()) assertEquals(expected.get(key), version.get(key), key);
+            for (String key : expected.keySet()) assertEquals(expected.get(key), version.get(key), key);
+        }
+    }
+
+    @Test
+    void removeIfLeavesOldVersionsUnchanged() {
+
+        PersistentPATRICIATrie<Integer> trie = new PersistentPATRICIATrie<>(new StringAnalyser());
+        for (int i = 0; i < 100; i++) trie = trie.put("k" + i, i);
+
+        PersistentPATRICIATrie<Integer> odd = trie.removeIf(value -> value % 2 == 0);
+
+        assertEquals(100, trie.size());
+        assertEquals(50, odd.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, trie.get("k" + i));
+            assertEquals(i % 2 == 0 ? null : i, odd.get("k" + i));
+        }
+        assertSame(odd, odd.removeIf(value -> value > 100));
+        assertEquals(0, odd.removeIf(value -> true).size());
+    }
+}
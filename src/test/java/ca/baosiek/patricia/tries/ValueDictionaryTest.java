@@ -0,0 +1,61 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so.
+ *
+ * This Software is only meant to serve as accompany support to the story "PATRICIA Trie's Nuts and Bolts"
+ * published on Medium.com
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHOR OR COPYRIGHT HOLDER BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.baosiek.patricia.tries;
+
+import ca.baosiek.patricia.analysers.StringAnalyser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueDictionaryTest {
+
+    @Test
+    void codesAreDenseInOrderOfFirstAppearance() {
+
+        ValueDictionary<String> dictionary = new ValueDictionary<>();
+
+        assertEquals(0, dictionary.encode("a"));
+        assertEquals(1, dictionary.encode("b"));
+        assertEquals(0, dictionary.encode(new String("a")));
+        assertEquals("b", dictionary.decode(1));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void internReturnsTheFirstInstance() {
+
+        ValueDictionary<String> dictionary = new ValueDictionary<>();
+        String first = new String("10.0.0.1");
+
+        assertSame(first, dictionary.intern(first));
+        assertSame(first, dictionary.intern(new String("10.0.0.1")));
+    }
+
+    @Test
+    void encodedTrieSharesEqualValues() {
+
+        PATRICIATrie<String> trie = new PATRICIATrie<>(new StringAnalyser(), true);
+        trie.put("a.com", new String("10.0.0.1"));
+        trie.put("b.com", new String("10.0.0.1"));
+        trie.put("c.com", new String("10.0.0.2"));
+
+        assertSame(trie.get("a.com"), trie.get("b.com"));
+        assertEquals("10.0.0.2", trie.get("c.com"));
+        assertEquals(2, trie.distinctValues());
+        assertEquals(-1, new PATRICIATrie<String>(new StringAnalyser()).distinctValues());
+    }
+}